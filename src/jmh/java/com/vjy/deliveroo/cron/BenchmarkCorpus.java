@@ -0,0 +1,39 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * Realistic mix of crontab expressions shared by the benchmarks.
+ */
+final class BenchmarkCorpus {
+
+	//@formatter:off
+	static final String[] EXPRESSIONS = {
+			// simple
+			"* * * * * /usr/bin/find",
+			"0 * * * * /usr/bin/hourly",
+			"30 2 * * * /usr/bin/backup",
+			"0 0 1 1 * /usr/bin/yearly",
+			// lists
+			"0,15,30,45 * * * * /usr/bin/quarter",
+			"0 7,19 * * * /usr/bin/twice",
+			"0 0 1,15 * * /usr/bin/payroll",
+			// ranges
+			"0 9-17 * * 1-5 /usr/bin/office",
+			"*/5 8-18 * * * /usr/bin/poll",
+			"0 0 1-7 * 1 /usr/bin/first-monday",
+			// steps
+			"*/15 0 1,15 * 1-5 /usr/bin/find",
+			"0/10 */2 * * * /usr/bin/sync",
+			"5-55/10 * */3 */2 * /usr/bin/sparse",
+			// names
+			"0 0 1 JAN-MAR * /usr/bin/quarterly",
+			"0 12 * * MON-FRI /usr/bin/lunch",
+			"0 6 * JUN-AUG SAT,SUN /usr/bin/summer",
+			// rare
+			"0 0 29 2 * /usr/bin/leap",
+			"59 23 31 12 * /usr/bin/new-year"
+	};
+	//@formatter:on
+
+	private BenchmarkCorpus() {
+	}
+}
@@ -0,0 +1,96 @@
+package com.vjy.deliveroo.cron;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+/**
+ * Benchmarks for parsing, editing, describing and evaluating expressions. Each invocation handles the next expression of
+ * {@link BenchmarkCorpus}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CronExpressionBenchmark {
+
+	// 2020-01-01T00:00:00Z
+	private static final long FROM = 1577836800000L;
+	private static final ZoneId UTC = ZoneOffset.UTC;
+	private static final ZoneId LONDON = ZoneId.of("Europe/London");
+
+	private CronExpression[] expressions;
+	// the corpus with a second field of every 10 seconds
+	private CronExpression[] secondExpressions;
+	private int idx;
+	private final StringBuilder description = new StringBuilder(1024);
+
+	@Setup
+	public void setUp() {
+		expressions = new CronExpression[BenchmarkCorpus.EXPRESSIONS.length];
+		secondExpressions = new CronExpression[BenchmarkCorpus.EXPRESSIONS.length];
+		for (int i = 0; i < expressions.length; i++) {
+			expressions[i] = new CronExpression(BenchmarkCorpus.EXPRESSIONS[i]);
+			secondExpressions[i] = new CronExpression("*/10 " + BenchmarkCorpus.EXPRESSIONS[i]);
+		}
+	}
+
+	private int next() {
+		int i = idx;
+		idx = i + 1 == expressions.length ? 0 : i + 1;
+		return i;
+	}
+
+	@Benchmark
+	public CronExpression parse() {
+		return new CronExpression(BenchmarkCorpus.EXPRESSIONS[next()]);
+	}
+
+	@Benchmark
+	public CronExpression withField() {
+		return expressions[next()].withField(FieldType.HOUR, "4");
+	}
+
+	@Benchmark
+	public String describe() {
+		return expressions[next()].describe();
+	}
+
+	@Benchmark
+	public int describeTo() throws IOException {
+		description.setLength(0);
+		expressions[next()].describeTo(description);
+		return description.length();
+	}
+
+	@Benchmark
+	public long nextExecutionUtc() {
+		return expressions[next()].nextExecution(FROM, UTC);
+	}
+
+	@Benchmark
+	public long nextExecutionSecondsUtc() {
+		return secondExpressions[next()].nextExecution(FROM, UTC);
+	}
+
+	@Benchmark
+	public long nextExecutionZone() {
+		return expressions[next()].nextExecution(FROM, LONDON);
+	}
+}
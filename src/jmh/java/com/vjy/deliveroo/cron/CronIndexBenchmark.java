@@ -0,0 +1,51 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for finding the schedules of {@link BenchmarkCorpus} firing at a minute.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CronIndexBenchmark {
+
+	// 2020-01-06T09:00Z
+	private static final long MINUTE = 26303220L;
+
+	@Param({ "1000", "100000", "500000" })
+	public int schedules;
+
+	private CronIndex index;
+	private long minute;
+
+	@Setup
+	public void setUp() {
+		index = new CronIndex(ZoneOffset.UTC);
+		for (int i = 0; i < schedules; i++) {
+			index.add(CronExpression.of(BenchmarkCorpus.EXPRESSIONS[i % BenchmarkCorpus.EXPRESSIONS.length]));
+		}
+	}
+
+	@Benchmark
+	public void firingAt(Blackhole bh) {
+		index.forEachFiringAt(MINUTE + (minute++ & 1023), bh::consume);
+	}
+}
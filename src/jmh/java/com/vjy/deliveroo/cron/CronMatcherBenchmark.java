@@ -0,0 +1,56 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scaling of the vector and scalar {@link CronMatcher} kernels with the number of schedules of
+ * {@link BenchmarkCorpus}. The vector kernel needs <code>--add-modules jdk.incubator.vector</code>, without it both
+ * parameters measure the scalar kernel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+@State(Scope.Thread)
+public class CronMatcherBenchmark {
+
+	@Param({ "1000", "10000", "100000", "1000000" })
+	public int schedules;
+
+	@Param({ "vector", "scalar" })
+	public String kernel;
+
+	private CronMatcher matcher;
+	private int minute;
+
+	@Setup
+	public void setUp() {
+		List<CronExpression> expressions = new ArrayList<>(schedules);
+		for (int i = 0; i < schedules; i++) {
+			expressions.add(CronExpression.of(BenchmarkCorpus.EXPRESSIONS[i % BenchmarkCorpus.EXPRESSIONS.length]));
+		}
+		matcher = new CronMatcher(ZoneOffset.UTC, expressions, "vector".equals(kernel));
+	}
+
+	@Benchmark
+	public int countMatching() {
+		// 2020-01-06 is a monday
+		return matcher.countMatching(minute++ % 60, 9, 6, 1, 1);
+	}
+}
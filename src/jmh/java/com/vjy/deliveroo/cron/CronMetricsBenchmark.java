@@ -0,0 +1,70 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Cost of {@link CronMetrics} on the hot paths. With <code>noop</code> the scores should match
+ * {@link CronExpressionBenchmark#parse()} and {@link CronExpressionBenchmark#nextExecutionUtc()}, with
+ * <code>recording</code> they add the clock reads and the recording of {@link RecordingCronMetrics}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CronMetricsBenchmark {
+
+	// 2020-01-01T00:00:00Z
+	private static final long FROM = 1577836800000L;
+
+	@Param({ "noop", "recording" })
+	public String metrics;
+
+	private CronExpression[] expressions;
+	private int idx;
+
+	@Setup
+	public void setUp() {
+		CronMetrics.install("recording".equals(metrics) ? new RecordingCronMetrics() : CronMetrics.NOOP);
+		expressions = new CronExpression[BenchmarkCorpus.EXPRESSIONS.length];
+		for (int i = 0; i < expressions.length; i++) {
+			expressions[i] = new CronExpression(BenchmarkCorpus.EXPRESSIONS[i]);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		CronMetrics.install(CronMetrics.NOOP);
+	}
+
+	private int next() {
+		int i = idx;
+		idx = i + 1 == expressions.length ? 0 : i + 1;
+		return i;
+	}
+
+	@Benchmark
+	public CronExpression parse() {
+		return new CronExpression(BenchmarkCorpus.EXPRESSIONS[next()]);
+	}
+
+	@Benchmark
+	public long nextExecutionUtc() {
+		return expressions[next()].nextExecution(FROM, ZoneOffset.UTC);
+	}
+}
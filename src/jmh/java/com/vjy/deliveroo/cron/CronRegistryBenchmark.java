@@ -0,0 +1,90 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Contention of 64 writer threads updating and removing schedules of {@link BenchmarkCorpus} while one dispatcher
+ * thread iterates a consistent view of all schedules. Compares {@link CronRegistry} with a map guarded by a single
+ * lock, where the consistent view is a copy made under the lock.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Group)
+public class CronRegistryBenchmark {
+
+	@Param({ "10000", "100000" })
+	public int schedules;
+
+	@Param({ "striped", "synchronized" })
+	public String registry;
+
+	private CronExpression[] expressions;
+	private CronRegistry striped;
+	private Map<Long, CronExpression> locked;
+
+	@Setup
+	public void setUp() {
+		expressions = new CronExpression[BenchmarkCorpus.EXPRESSIONS.length];
+		for (int i = 0; i < expressions.length; i++) {
+			expressions[i] = CronExpression.of(BenchmarkCorpus.EXPRESSIONS[i]);
+		}
+		striped = new CronRegistry();
+		locked = new HashMap<>();
+		for (int id = 0; id < schedules; id++) {
+			striped.put(id, expressions[id % expressions.length]);
+			locked.put((long) id, expressions[id % expressions.length]);
+		}
+	}
+
+	@Benchmark
+	@Group("contention")
+	@GroupThreads(64)
+	public Object write() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long id = random.nextInt(schedules);
+		CronExpression expression = expressions[random.nextInt(expressions.length)];
+		boolean remove = random.nextInt(4) == 0;
+		if ("striped".equals(registry)) {
+			return remove ? striped.remove(id) : striped.put(id, expression);
+		}
+		synchronized (locked) {
+			return remove ? locked.remove(id) : locked.put(id, expression);
+		}
+	}
+
+	@Benchmark
+	@Group("contention")
+	@GroupThreads(1)
+	public void dispatch(Blackhole bh) {
+		if ("striped".equals(registry)) {
+			striped.snapshot().forEach((id, expression) -> bh.consume(expression));
+			return;
+		}
+		Map<Long, CronExpression> snapshot;
+		synchronized (locked) {
+			snapshot = new HashMap<>(locked);
+		}
+		snapshot.forEach((id, expression) -> bh.consume(expression));
+	}
+}
@@ -0,0 +1,62 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Latency of one scheduler tick with the schedules of {@link BenchmarkCorpus} registered, sampled so the percentiles
+ * show the ticks cascading an hour or day slot. Tasks are no-ops run on the ticking thread.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Thread)
+public class CronSchedulerBenchmark {
+
+	// 2020-01-06T00:00Z
+	private static final long MINUTE = 26302680L;
+
+	@Param({ "100000", "1000000" })
+	public int schedules;
+
+	private CronScheduler scheduler;
+	private long minute = MINUTE;
+	private int next;
+
+	@Setup
+	public void setUp() {
+		scheduler = new CronScheduler(ZoneOffset.UTC, Runnable::run, MINUTE);
+		Runnable task = () -> {
+		};
+		for (int i = 0; i < schedules; i++) {
+			scheduler.schedule(CronExpression.of(BenchmarkCorpus.EXPRESSIONS[i % BenchmarkCorpus.EXPRESSIONS.length]),
+					task);
+		}
+	}
+
+	@Benchmark
+	public void tick() {
+		scheduler.advanceTo(++minute);
+	}
+
+	@Benchmark
+	public void scheduleAndCancel() {
+		String expression = BenchmarkCorpus.EXPRESSIONS[next++ % BenchmarkCorpus.EXPRESSIONS.length];
+		scheduler.schedule(CronExpression.of(expression), () -> {
+		}).cancel();
+	}
+}
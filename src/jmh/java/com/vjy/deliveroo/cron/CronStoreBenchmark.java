@@ -0,0 +1,51 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmark for scanning the off-heap store for the schedules of {@link BenchmarkCorpus} firing at a minute.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CronStoreBenchmark {
+
+	// 2020-01-06T09:00Z
+	private static final long MINUTE = 26303220L;
+
+	@Param({ "100000", "1000000" })
+	public int schedules;
+
+	private CronStore store;
+	private long minute;
+
+	@Setup
+	public void setUp() {
+		store = new CronStore(ZoneOffset.UTC, schedules);
+		for (int i = 0; i < schedules; i++) {
+			store.add(CronExpression.of(BenchmarkCorpus.EXPRESSIONS[i % BenchmarkCorpus.EXPRESSIONS.length]));
+		}
+	}
+
+	@Benchmark
+	public void firingAt(Blackhole bh) {
+		store.forEachFiringAt(MINUTE + (minute++ & 1023), bh::consume);
+	}
+}
@@ -0,0 +1,72 @@
+package com.vjy.deliveroo.cron;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Time to load a 500k line crontab built from {@link BenchmarkCorpus}, {@link CrontabLoader} against reading and
+ * parsing line by line on one thread.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@State(Scope.Benchmark)
+public class CrontabLoaderBenchmark {
+
+	private static final int LINES = 500_000;
+
+	private Path file;
+
+	@Setup
+	public void setUp() throws IOException {
+		file = Files.createTempFile("crontab", ".txt");
+		List<String> lines = new ArrayList<>(LINES);
+		for (int i = 0; i < LINES; i++) {
+			lines.add(i % 100 == 0 ? "# comment" : BenchmarkCorpus.EXPRESSIONS[i % BenchmarkCorpus.EXPRESSIONS.length]);
+		}
+		Files.write(file, lines, StandardCharsets.UTF_8);
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.delete(file);
+	}
+
+	@Benchmark
+	public void loader(Blackhole bh) throws IOException {
+		CrontabLoader.load(file).forEach(bh::consume);
+	}
+
+	@Benchmark
+	public void lineByLine(Blackhole bh) throws IOException {
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (!line.trim().isEmpty() && !line.trim().startsWith("#")) {
+					bh.consume(new CronExpression(line));
+				}
+			}
+		}
+	}
+}
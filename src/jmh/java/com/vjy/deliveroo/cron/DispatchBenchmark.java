@@ -0,0 +1,80 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Time until 100k jobs firing in the same minute have finished, each blocking for 100 ms like a command waiting on
+ * I/O. Compares {@link CronScheduler#newVirtualThreadExecutor()} with a classic fixed size
+ * {@link ThreadPoolExecutor}, the gc profiler reports the memory allocated per run. Virtual threads need a Java 21
+ * runtime, older runtimes measure the platform thread fallback.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Thread)
+public class DispatchBenchmark {
+
+	private static final int FIRINGS = 100_000;
+	private static final long MINUTE = 26302680L;
+
+	@Param({ "virtual", "pool" })
+	public String executor;
+
+	private ExecutorService executorService;
+	private CronScheduler scheduler;
+	private CountDownLatch done;
+
+	@Setup(Level.Invocation)
+	public void setUp() {
+		if ("virtual".equals(executor)) {
+			executorService = CronScheduler.newVirtualThreadExecutor();
+		} else {
+			executorService = new ThreadPoolExecutor(200, 200, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+		}
+		scheduler = new CronScheduler(ZoneOffset.UTC, executorService, MINUTE);
+		done = new CountDownLatch(FIRINGS);
+		CronExpression expression = CronExpression.of("* * * * * /usr/bin/find");
+		for (int i = 0; i < FIRINGS; i++) {
+			scheduler.schedule(expression, () -> {
+				try {
+					Thread.sleep(100);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				done.countDown();
+			});
+		}
+	}
+
+	@TearDown(Level.Invocation)
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Benchmark
+	public void fireAndWait() throws InterruptedException {
+		scheduler.advanceTo(MINUTE + 1);
+		done.await();
+	}
+}
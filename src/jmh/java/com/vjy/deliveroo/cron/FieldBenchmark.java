@@ -0,0 +1,65 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+import com.vjy.deliveroo.cron.fields.SimpleField;
+
+/**
+ * Benchmarks for parsing, looking up in the {@link FieldCache} and expanding a single minute field.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class FieldBenchmark {
+
+	@Param({ "*", "5", "0-30", "*/5", "0,15,30,45" })
+	public String exp;
+
+	private SimpleField field;
+	private FieldCache cache;
+
+	@Setup
+	public void setUp() {
+		field = new SimpleField(FieldType.MINUTE, exp);
+		cache = new FieldCache(FieldCache.DEFAULT_MAXIMUM_SIZE);
+	}
+
+	@Benchmark
+	public SimpleField parse() {
+		return new SimpleField(FieldType.MINUTE, exp);
+	}
+
+	@Benchmark
+	public SimpleField cached() {
+		return cache.get(FieldType.MINUTE, exp, 0, exp.length());
+	}
+
+	@Benchmark
+	public void expandSet(Blackhole bh) {
+		for (Integer value : field.get()) {
+			bh.consume(value);
+		}
+	}
+
+	@Benchmark
+	public void expandPrimitive(Blackhole bh) {
+		field.forEach(bh::consume);
+	}
+}
@@ -0,0 +1,23 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * What a {@link CronScheduler} does when a job fires while earlier runs of the same job are still running.
+ */
+public enum ConcurrencyPolicy {
+
+	/**
+	 * Drop the firing when the job is running at its concurrency limit.
+	 */
+	SKIP,
+
+	/**
+	 * Run the firing as soon as a run of the job finishes, when the job is running at its concurrency limit. Queued
+	 * firings are counted, not stored, and are dropped when the job is cancelled.
+	 */
+	QUEUE,
+
+	/**
+	 * Start every firing immediately, the concurrency limit is not applied.
+	 */
+	CONCURRENT
+}
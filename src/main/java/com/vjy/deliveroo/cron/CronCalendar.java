@@ -0,0 +1,138 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * Primitive proleptic gregorian calendar arithmetic used by the execution time computation, avoids allocating
+ * {@link java.time} objects for every candidate date. Months of the years {@value #TABLE_FIRST_YEAR} to
+ * {@value #TABLE_LAST_YEAR} are read from a table built on first use.
+ */
+final class CronCalendar {
+
+	static final int MINUTES_PER_HOUR = 60;
+	static final int MINUTES_PER_DAY = 24 * MINUTES_PER_HOUR;
+	static final int SECONDS_PER_MINUTE = 60;
+
+	static final int TABLE_FIRST_YEAR = 1970;
+	static final int TABLE_LAST_YEAR = 2200;
+
+	private static final int DAYS_0000_TO_1970 = 719468;
+	private static final int DAYS_PER_CYCLE = 146097;
+
+	private CronCalendar() {
+	}
+
+	/**
+	 * Month table, initialized by the class loader on the first call to {@link CronCalendar#monthInfo(int, int)}.
+	 */
+	private static final class MonthTable {
+		// one byte per month from january of the first year, see monthInfo
+		static final byte[] MONTHS = build();
+
+		private static byte[] build() {
+			byte[] months = new byte[(TABLE_LAST_YEAR - TABLE_FIRST_YEAR + 1) * 12];
+			for (int i = 0; i < months.length; i++) {
+				months[i] = (byte) computeMonthInfo(TABLE_FIRST_YEAR + i / 12, i % 12 + 1);
+			}
+			return months;
+		}
+	}
+
+	/**
+	 * Day of week of the 1st and length of a month, packed into one int. Read from the month table when the year is
+	 * in its range.
+	 * 
+	 * @return packed month, see {@link #firstDayOfWeek(int)} and {@link #monthLength(int)}
+	 */
+	static int monthInfo(int year, int month) {
+		if (year >= TABLE_FIRST_YEAR && year <= TABLE_LAST_YEAR) {
+			return MonthTable.MONTHS[(year - TABLE_FIRST_YEAR) * 12 + month - 1] & 0xFF;
+		}
+		return computeMonthInfo(year, month);
+	}
+
+	private static int computeMonthInfo(int year, int month) {
+		return dayOfWeek(toEpochDay(year, month, 1)) << 5 | lengthOfMonth(year, month);
+	}
+
+	/**
+	 * @param monthInfo packed month from {@link #monthInfo(int, int)}
+	 * @return day of week of the 1st, 1 is monday and 7 is sunday
+	 */
+	static int firstDayOfWeek(int monthInfo) {
+		return monthInfo >>> 5;
+	}
+
+	/**
+	 * @param monthInfo packed month from {@link #monthInfo(int, int)}
+	 * @return number of days of the month
+	 */
+	static int monthLength(int monthInfo) {
+		return monthInfo & 0x1F;
+	}
+
+	static boolean isLeapYear(int year) {
+		return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+	}
+
+	static int lengthOfMonth(int year, int month) {
+		switch (month) {
+		case 2:
+			return isLeapYear(year) ? 29 : 28;
+		case 4:
+		case 6:
+		case 9:
+		case 11:
+			return 30;
+		default:
+			return 31;
+		}
+	}
+
+	/**
+	 * Days since 1970-01-01 for given date.
+	 */
+	static long toEpochDay(int year, int month, int day) {
+		long y = month <= 2 ? year - 1 : year;
+		long era = Math.floorDiv(y, 400);
+		long yearOfEra = y - era * 400;
+		long dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+		long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+		return era * DAYS_PER_CYCLE + dayOfEra - DAYS_0000_TO_1970;
+	}
+
+	/**
+	 * Convert days since 1970-01-01 to a packed date, see {@link #year(int)}, {@link #month(int)} and
+	 * {@link #day(int)}.
+	 */
+	static int toDate(long epochDay) {
+		long z = epochDay + DAYS_0000_TO_1970;
+		long era = Math.floorDiv(z, DAYS_PER_CYCLE);
+		long dayOfEra = z - era * DAYS_PER_CYCLE;
+		long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+		long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+		long mp = (5 * dayOfYear + 2) / 153;
+		int day = (int) (dayOfYear - (153 * mp + 2) / 5 + 1);
+		int month = (int) (mp < 10 ? mp + 3 : mp - 9);
+		int year = (int) (yearOfEra + era * 400 + (month <= 2 ? 1 : 0));
+		return (year << 9) | (month << 5) | day;
+	}
+
+	static int year(int date) {
+		return date >> 9;
+	}
+
+	static int month(int date) {
+		return (date >> 5) & 0xF;
+	}
+
+	static int day(int date) {
+		return date & 0x1F;
+	}
+
+	/**
+	 * Day of week for days since 1970-01-01, 1 is monday and 7 is sunday.
+	 */
+	static int dayOfWeek(long epochDay) {
+		// 1970-01-01 was a thursday
+		return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+	}
+}
@@ -1,12 +1,31 @@
 package com.vjy.deliveroo.cron;
 
-import java.util.Collections;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import com.vjy.deliveroo.cron.fields.BaseField;
 import com.vjy.deliveroo.cron.fields.DayOfMonthField;
 import com.vjy.deliveroo.cron.fields.DayOfWeekField;
 import com.vjy.deliveroo.cron.fields.FieldType;
 import com.vjy.deliveroo.cron.fields.SimpleField;
+import com.vjy.deliveroo.cron.fields.YearField;
 
 /**
  * <P>
@@ -14,7 +33,9 @@ import com.vjy.deliveroo.cron.fields.SimpleField;
  * Parser for unix-like cron expressions: Cron expressions allow specifying combinations of criteria for time
  * such as: &quot;Each Monday-Friday &quot; or &quot; 1,2,3 days of month &quot;
  * <p>
- * A cron expressions consists of 6 mandatory fields separated by space. <br>
+ * A cron expressions consists of 6 mandatory fields separated by space, optionally preceded by a second field and
+ * followed by a year field after the day of week. The field count tells the format: 6 parts are the unix fields and
+ * the command, 7 add the second and 8 add the second and the year. <br>
  * These are:
  *
  * <table cellspacing="8">
@@ -27,6 +48,13 @@ import com.vjy.deliveroo.cron.fields.SimpleField;
  * </tr>
  * 
  * <tr>
+ * <td align="left"><code>Seconds (optional)</code></td>
+ * <td align="left">&nbsp;</th>
+ * <td align="left"><code>0-59</code></td>
+ * <td align="left">&nbsp;</th>
+ * <td align="left"><code>, - * /</code></td>
+ * </tr>
+ * <tr>
  * <td align="left"><code>Minutes</code></td>
  * <td align="left">&nbsp;</th>
  * <td align="left"><code>0-59</code></td>
@@ -62,6 +90,13 @@ import com.vjy.deliveroo.cron.fields.SimpleField;
  * <td align="left"><code>, - * / </code></td>
  * </tr>
  * <tr>
+ * <td align="left"><code>Year (optional, with seconds)</code></td>
+ * <td align="left">&nbsp;</th>
+ * <td align="left"><code>1970-2199</code></td>
+ * <td align="left">&nbsp;</th>
+ * <td align="left"><code>, - * /</code></td>
+ * </tr>
+ * <tr>
  * <td align="left"><code>Command</code></td>
  * <td align="left">&nbsp;</th>
  * <td align="left"><code>User command ex. /usr/bin/find</code></td>
@@ -89,93 +124,1174 @@ import com.vjy.deliveroo.cron.fields.SimpleField;
  * <b>Case-sensitive</b> No fields are case-sensitive
  * <P>
  * <b>Dependencies between fields</b> Fields are always evaluated independently, but the expression doesn't match until
- * the constraints of each field are met. Overlap of intervals are not allowed. That is: for
+ * the constraints of each field are met. Like standard cron, when both day of month and day of week are restricted
+ * (neither starts with '*' or '?') a day matches if either of them matches, e.g. &quot;1,15 * MON&quot; fires on the
+ * 1st, the 15th and every monday. Overlap of intervals are not allowed. That is: for
  * Day-of-week field &quot;FRI-MON&quot; is invalid,but &quot;FRI-SUN,MON&quot; is valid
+ * <P>
+ * <b>Thread safety</b> Expressions and their fields are immutable, all fields are parsed and compiled once in the
+ * constructor. Instances can be shared between threads without synchronization.
  *
  */
 
-public class CronExpression {
+public final class CronExpression {
+
+	/**
+	 * Returned by the primitive execution time methods when the expression never fires again.
+	 */
+	public static final long NO_EXECUTION = Long.MIN_VALUE;
 
 	private static final String COMMAND = "command";
+	// the gregorian calendar repeats every 400 years, nothing found within this window means never
+	private static final int MAX_SEARCH_YEARS = 400;
 	private static final int MAX_COLM_LENGTH = 14;
-	private final int EXPECTED_PART_LENGTH = 6;
+	// a description of every value of the unix fields is about 350 characters
+	private static final int DESCRIPTION_CAPACITY = 384;
+	private static final int DESCRIPTION_BUFFER = 1 << 16;
+	private static final int SECONDS_PER_MINUTE = CronCalendar.SECONDS_PER_MINUTE;
+	private static final int EXPECTED_PART_LENGTH = 6;
+	private static final int MAX_PART_LENGTH = 8;
+	private static final CronExpressionCache CACHE = new CronExpressionCache(CronExpressionCache.DEFAULT_MAXIMUM_SIZE);
+	private static final FieldCache FIELDS = new FieldCache(FieldCache.DEFAULT_MAXIMUM_SIZE);
+	// fields of expressions without seconds or year, not cached since describe only prints fields of the text
+	private static final SimpleField ZERO_SECOND = new SimpleField(FieldType.SECOND, "0");
+	private static final YearField EVERY_YEAR = new YearField(FieldType.YEAR, "*");
+
+	/**
+	 * Fields of the unix format, in the order of the expression. Only these are kept by the mask based stores.
+	 */
+	static final FieldType[] UNIX_FIELDS = { FieldType.MINUTE, FieldType.HOUR, FieldType.DAY_OF_MONTH,
+			FieldType.MONTH, FieldType.DAY_OF_WEEK };
+
+	/**
+	 * Bit 0 of the day of week mask, which is no day, set by {@link #getDaysOfWeekMask()} when the day fields match
+	 * if either of them matches.
+	 */
+	static final long DAYS_UNION = 1L;
+
+	// how the day fields combine, the single field rules skip the field matching every day
+	private static final byte DAYS_OF_MONTH_ONLY = 0;
+	private static final byte DAYS_OF_WEEK_ONLY = 1;
+	private static final byte DAYS_INTERSECTION = 2;
+	private static final byte DAYS_UNION_RULE = 3;
+
+	private final SimpleField secondField;
 	private final SimpleField minuteField;
 	private final SimpleField hourField;
 	private final DayOfMonthField dayOfMonthField;
 	private final SimpleField monthField;
 	private final DayOfWeekField dayOfWeekField;
+	private final YearField yearField;
+	// second field is only 0, the search runs on minutes alone
+	private final boolean minuteResolution;
+	private final byte dayRule;
 	private final String cmd;
 	private final String expression;
 
 	public CronExpression(String exp) {
+		CronMetrics metrics = Instrumentation.metrics;
+		boolean timed = metrics != CronMetrics.NOOP;
+		long start = timed ? System.nanoTime() : 0L;
 		this.expression = exp;
+		int[] bounds = split(exp);
+		int parts = bounds.length / 2;
+		long expandStart = timed ? System.nanoTime() : 0L;
+
+		// construct fields from expression
+		int idx = 0;
+		secondField = parts > EXPECTED_PART_LENGTH
+				? FIELDS.get(FieldType.SECOND, exp, bounds[idx++], bounds[idx++])
+				: ZERO_SECOND;
+
+		minuteField = FIELDS.get(FieldType.MINUTE, exp, bounds[idx++], bounds[idx++]);
+
+		hourField = FIELDS.get(FieldType.HOUR, exp, bounds[idx++], bounds[idx++]);
+
+		boolean dayOfMonthStar = isStar(exp, bounds[idx]);
+		dayOfMonthField = FIELDS.get(FieldType.DAY_OF_MONTH, exp, bounds[idx++], bounds[idx++]);
+
+		monthField = FIELDS.get(FieldType.MONTH, exp, bounds[idx++], bounds[idx++]);
+
+		boolean dayOfWeekStar = isStar(exp, bounds[idx]);
+		dayOfWeekField = FIELDS.get(FieldType.DAY_OF_WEEK, exp, bounds[idx++], bounds[idx++]);
+
+		yearField = parts == MAX_PART_LENGTH ? FIELDS.get(FieldType.YEAR, exp, bounds[idx++], bounds[idx++])
+				: EVERY_YEAR;
+		long expandEnd = timed ? System.nanoTime() : 0L;
+
+		cmd = exp.substring(bounds[idx++], bounds[idx]);
+
+		minuteResolution = secondField.getBits() == 1L;
+		dayRule = dayRule(dayOfMonthField, dayOfWeekField, dayOfMonthStar, dayOfWeekStar);
+		if (timed) {
+			metrics.record(CronMetrics.Operation.EXPAND, exp, expandEnd - expandStart);
+			metrics.record(CronMetrics.Operation.PARSE, exp, System.nanoTime() - start);
+		}
+	}
+
+	private CronExpression(CronExpression schedule, boolean daysUnion) {
+		this(schedule, schedule.cmd, schedule.expression, daysUnion ? DAYS_UNION_RULE
+				: dayRule(schedule.dayOfMonthField, schedule.dayOfWeekField, true, true));
+	}
+
+	/**
+	 * A field starting with '*' or '?' does not make the days a union, like cron this includes steps such as '*&#47;2'.
+	 */
+	private static boolean isStar(String exp, int start) {
+		return exp.charAt(start) == '*' || exp.charAt(start) == '?';
+	}
+
+	private static byte dayRule(DayOfMonthField dayOfMonth, DayOfWeekField dayOfWeek, boolean dayOfMonthStar,
+			boolean dayOfWeekStar) {
+		if (!dayOfMonthStar && !dayOfWeekStar) {
+			return DAYS_UNION_RULE;
+		} else if (isEveryDay(dayOfWeek)) {
+			return DAYS_OF_MONTH_ONLY;
+		} else if (isEveryDay(dayOfMonth)) {
+			return DAYS_OF_WEEK_ONLY;
+		}
+		return DAYS_INTERSECTION;
+	}
+
+	private static boolean isEveryDay(SimpleField field) {
+		FieldType type = field.getType();
+		return !field.isCalendarDependent()
+				&& field.getBits() == ((-1L << type.getFrom()) & (-1L >>> (Long.SIZE - 1 - type.getTo())));
+	}
+
+	/**
+	 * Expression sharing the compiled fields of schedule with a different command.
+	 */
+	private CronExpression(CronExpression schedule, String cmd, String exp) {
+		this(schedule, cmd, exp, schedule.dayRule);
+	}
+
+	private CronExpression(CronExpression schedule, String cmd, String exp, byte dayRule) {
+		this(exp, cmd, schedule.secondField, schedule.minuteField, schedule.hourField, schedule.dayOfMonthField,
+				schedule.monthField, schedule.dayOfWeekField, schedule.yearField, dayRule);
+	}
+
+	private CronExpression(String exp, String cmd, SimpleField secondField, SimpleField minuteField,
+			SimpleField hourField, DayOfMonthField dayOfMonthField, SimpleField monthField,
+			DayOfWeekField dayOfWeekField, YearField yearField, byte dayRule) {
+		this.expression = exp;
+		this.secondField = secondField;
+		this.minuteField = minuteField;
+		this.hourField = hourField;
+		this.dayOfMonthField = dayOfMonthField;
+		this.monthField = monthField;
+		this.dayOfWeekField = dayOfWeekField;
+		this.yearField = yearField;
+		this.minuteResolution = secondField.getBits() == 1L;
+		this.dayRule = dayRule;
+		this.cmd = cmd;
+	}
+
+	/**
+	 * Expression with one field replaced, only that field is parsed and the compiled other fields are shared with
+	 * this expression. The result is the expression of the text with the field edited, a missing second or year field
+	 * is added, with second 0 for a year.
+	 * 
+	 * @param type  field to replace
+	 * @param field field expression, e.g. "4" for the hour
+	 * @return new expression with the same command
+	 * @throws IllegalArgumentException if field is not valid for type
+	 */
+	public CronExpression withField(FieldType type, String field) {
+		if (null == field || field.isEmpty() || field.chars().anyMatch(c -> isSeparator((char) c))) {
+			throw new IllegalArgumentException("Invalid cron input '" + field + "' for field [" + type + "]");
+		}
+		int[] bounds = split(expression);
+		boolean seconds = bounds.length / 2 > EXPECTED_PART_LENGTH;
+		// part of each unix field, the minute is part 0 or follows the second
+		int minutePart = seconds ? 1 : 0;
+		int dayOfMonthPart = minutePart + 2;
+		int dayOfWeekPart = minutePart + 4;
+
+		SimpleField second = secondField;
+		SimpleField minute = minuteField;
+		SimpleField hour = hourField;
+		DayOfMonthField dayOfMonth = dayOfMonthField;
+		SimpleField month = monthField;
+		DayOfWeekField dayOfWeek = dayOfWeekField;
+		YearField year = yearField;
+		boolean dayOfMonthStar = isStar(expression, bounds[dayOfMonthPart * 2]);
+		boolean dayOfWeekStar = isStar(expression, bounds[dayOfWeekPart * 2]);
+		String exp;
+		switch (type) {
+		case SECOND:
+			second = FIELDS.get(type, field, 0, field.length());
+			exp = seconds ? replacePart(bounds, 0, field) : splice(bounds[0], bounds[0], field + ' ');
+			break;
+		case MINUTE:
+			minute = FIELDS.get(type, field, 0, field.length());
+			exp = replacePart(bounds, minutePart, field);
+			break;
+		case HOUR:
+			hour = FIELDS.get(type, field, 0, field.length());
+			exp = replacePart(bounds, minutePart + 1, field);
+			break;
+		case DAY_OF_MONTH:
+			dayOfMonth = FIELDS.get(type, field, 0, field.length());
+			dayOfMonthStar = isStar(field, 0);
+			exp = replacePart(bounds, dayOfMonthPart, field);
+			break;
+		case MONTH:
+			month = FIELDS.get(type, field, 0, field.length());
+			exp = replacePart(bounds, minutePart + 3, field);
+			break;
+		case DAY_OF_WEEK:
+			dayOfWeek = FIELDS.get(type, field, 0, field.length());
+			dayOfWeekStar = isStar(field, 0);
+			exp = replacePart(bounds, dayOfWeekPart, field);
+			break;
+		case YEAR:
+			year = FIELDS.get(type, field, 0, field.length());
+			if (bounds.length / 2 == MAX_PART_LENGTH) {
+				exp = replacePart(bounds, dayOfWeekPart + 1, field);
+			} else {
+				int end = bounds[dayOfWeekPart * 2 + 1];
+				exp = splice(end, end, ' ' + field);
+				if (!seconds) {
+					second = FIELDS.get(FieldType.SECOND, "0", 0, 1);
+					exp = exp.substring(0, bounds[0]) + "0 " + exp.substring(bounds[0]);
+				}
+			}
+			break;
+		default:
+			throw new IllegalArgumentException(String.format("Unsupported field [%s]", type));
+		}
+		return new CronExpression(exp, cmd, second, minute, hour, dayOfMonth, month, dayOfWeek, year,
+				dayRule(dayOfMonth, dayOfWeek, dayOfMonthStar, dayOfWeekStar));
+	}
+
+	private String replacePart(int[] bounds, int part, String field) {
+		return splice(bounds[part * 2], bounds[part * 2 + 1], field);
+	}
+
+	private String splice(int start, int end, String text) {
+		return expression.substring(0, start) + text + expression.substring(end);
+	}
+
+	/**
+	 * Get expression from the shared {@link #cache()}. Expressions with the same schedule (the time fields,
+	 * ignoring whitespace) share one instance of compiled fields, only the command differs.
+	 * 
+	 * @param exp cron expression
+	 * @return parsed expression
+	 */
+	public static CronExpression of(String exp) {
+		int[] bounds = split(exp);
+		String key = scheduleKey(exp, bounds);
+		CronExpression schedule = CACHE.get(key, k -> new CronExpression(exp));
+		if (exp.equals(schedule.expression)) {
+			return schedule;
+		}
+		int cmdIdx = bounds.length - 2;
+		return new CronExpression(schedule, exp.substring(bounds[cmdIdx], bounds[cmdIdx + 1]), exp);
+	}
+
+	/**
+	 * @return cache used by {@link #of(String)}
+	 */
+	public static CronExpressionCache cache() {
+		return CACHE;
+	}
+
+	/**
+	 * @return cache of compiled fields shared by all expressions
+	 */
+	public static FieldCache fieldCache() {
+		return FIELDS;
+	}
+
+	/**
+	 * Create expression from compiled fields, each field is written as '*', value list or ranges.
+	 * 
+	 * @param bits    bit mask of each field in {@link #UNIX_FIELDS} order, the day of week mask may have
+	 *                {@link #DAYS_UNION} set
+	 * @param command
+	 * @return new expression
+	 */
+	static CronExpression fromBits(long[] bits, String command) {
+		StringBuilder exp = new StringBuilder();
+		for (int i = 0; i < UNIX_FIELDS.length; i++) {
+			appendField(exp, bits[i] & ~(UNIX_FIELDS[i] == FieldType.DAY_OF_WEEK ? DAYS_UNION : 0L), UNIX_FIELDS[i]);
+			exp.append(' ');
+		}
+		CronExpression parsed = new CronExpression(exp.append(command).toString());
+		boolean daysUnion = (bits[UNIX_FIELDS.length - 1] & DAYS_UNION) != 0;
+		// restricted lists read as a union, the intersection of steps like '*/2' has no list form
+		return parsed.isDaysUnion() == daysUnion ? parsed : new CronExpression(parsed, daysUnion);
+	}
+
+	private static void appendField(StringBuilder exp, long bits, FieldType type) {
+		long all = (-1L >>> (Long.SIZE - 1 - type.getTo())) & (-1L << type.getFrom());
+		if (bits == all) {
+			exp.append('*');
+			return;
+		}
+		if (bits == 0) {
+			// a list of no values
+			exp.append(',');
+			return;
+		}
+		long mask = bits;
+		while (mask != 0) {
+			int from = Long.numberOfTrailingZeros(mask);
+			// length of the run of set bits starting at from
+			int to = from + Long.numberOfTrailingZeros(~(mask >>> from)) - 1;
+			if (mask != bits) {
+				exp.append(',');
+			}
+			exp.append(from);
+			if (to > from) {
+				exp.append('-').append(to);
+			}
+			mask &= to == Long.SIZE - 1 ? 0 : -1L << (to + 1);
+		}
+	}
+
+	/**
+	 * Time fields separated by a single space.
+	 */
+	private static String scheduleKey(String exp, int[] bounds) {
+		int last = bounds.length - 3;
+		boolean normalized = true;
+		for (int i = 1; i < last && normalized; i += 2) {
+			normalized = bounds[i + 1] == bounds[i] + 1 && exp.charAt(bounds[i]) == ' ';
+		}
+		if (normalized) {
+			return exp.substring(bounds[0], bounds[last]);
+		}
+
+		StringBuilder key = new StringBuilder(bounds[last] - bounds[0]);
+		for (int i = 0; i < last; i += 2) {
+			if (i > 0) {
+				key.append(' ');
+			}
+			key.append(exp, bounds[i], bounds[i + 1]);
+		}
+		return key.toString();
+	}
+
+	/**
+	 * Single pass over the expression recording start and end of each whitespace separated part.
+	 * 
+	 * @param exp
+	 * @return start and end index of each part, 6 to 8 parts
+	 */
+	private static int[] split(String exp) {
 		if (null == exp || exp.trim().isEmpty()) {
 			throw new IllegalArgumentException("null and empty expression is not allowed");
 		}
 
-		String[] parts = exp.trim().split("\\s+");
-		if (parts.length != EXPECTED_PART_LENGTH) {
+		int[] bounds = new int[MAX_PART_LENGTH * 2];
+		int count = 0;
+		int i = 0;
+		int length = exp.length();
+		while (i < length) {
+			while (i < length && isSeparator(exp.charAt(i))) {
+				i++;
+			}
+			if (i == length) {
+				break;
+			}
+			int start = i;
+			while (i < length && !isSeparator(exp.charAt(i))) {
+				i++;
+			}
+			if (count < MAX_PART_LENGTH) {
+				bounds[count * 2] = start;
+				bounds[count * 2 + 1] = i;
+			}
+			count++;
+		}
+		if (count < EXPECTED_PART_LENGTH || count > MAX_PART_LENGTH) {
 			throw new IllegalArgumentException(
-					String.format("Invalid cron expression [%s], expected %s fields, actual %s", exp,
-							EXPECTED_PART_LENGTH, parts.length));
+					String.format("Invalid cron expression [%s], expected %s to %s fields, actual %s", exp,
+							EXPECTED_PART_LENGTH, MAX_PART_LENGTH, count));
 		}
+		return count == MAX_PART_LENGTH ? bounds : Arrays.copyOf(bounds, count * 2);
+	}
 
-		// construct fields from expression
-		int idx = 0;
-		minuteField = new SimpleField(FieldType.MINUTE, parts[idx++]);
+	/**
+	 * Characters separating expression parts, everything {@link String#trim()} removes.
+	 */
+	private static boolean isSeparator(char c) {
+		return c <= ' ';
+	}
 
-		hourField = new SimpleField(FieldType.HOUR, parts[idx++]);
+	/**
+	 * Next time after given instant at which this expression fires.
+	 * 
+	 * @param from exclusive start
+	 * @param zone time zone in which the fields are evaluated
+	 * @return next execution or empty if expression never fires
+	 */
+	public Optional<Instant> nextExecution(Instant from, ZoneId zone) {
+		long next = nextExecution(from.toEpochMilli(), zone);
+		return next == NO_EXECUTION ? Optional.empty() : Optional.of(Instant.ofEpochMilli(next));
+	}
 
-		dayOfMonthField = new DayOfMonthField(FieldType.DAY_OF_MONTH, parts[idx++]);
+	/**
+	 * Next time after given epoch millis at which this expression fires. Repeated local times fire once, see
+	 * {@link OverlapPolicy#FIRE_ONCE}, use {@link #inZone(ZoneId, OverlapPolicy)} for other policies.
+	 * 
+	 * @param epochMillis exclusive start
+	 * @param zone        time zone in which the fields are evaluated
+	 * @return epoch millis of next execution or {@link #NO_EXECUTION}
+	 */
+	public long nextExecution(long epochMillis, ZoneId zone) {
+		return nextExecution(epochMillis, ZoneTimeline.of(zone), OverlapPolicy.FIRE_ONCE);
+	}
 
-		monthField = new SimpleField(FieldType.MONTH, parts[idx++]);
+	/**
+	 * Evaluate this expression in a time zone.
+	 * 
+	 * @param zone time zone in which the fields are evaluated
+	 * @return evaluator firing repeated local times once
+	 */
+	public ZonedCronExpression inZone(ZoneId zone) {
+		return inZone(zone, OverlapPolicy.FIRE_ONCE);
+	}
+
+	/**
+	 * Evaluate this expression in a time zone.
+	 * 
+	 * @param zone   time zone in which the fields are evaluated
+	 * @param policy how repeated local times fire when daylight saving time ends
+	 * @return evaluator
+	 */
+	public ZonedCronExpression inZone(ZoneId zone, OverlapPolicy policy) {
+		return new ZonedCronExpression(this, zone, ZoneTimeline.of(zone), policy);
+	}
+
+	/**
+	 * Next execution, walking the periods of constant offset of the zone. Within a period the local time is the
+	 * instant plus the offset, so the search runs on local seconds and converts the result back. Timed as
+	 * {@link CronMetrics.Operation#NEXT_EXECUTION} when metrics are installed.
+	 * 
+	 * @param epochMillis exclusive start
+	 * @return epoch millis of next execution or {@link #NO_EXECUTION}
+	 */
+	long nextExecution(long epochMillis, ZoneTimeline timeline, OverlapPolicy policy) {
+		CronMetrics metrics = Instrumentation.metrics;
+		if (metrics == CronMetrics.NOOP) {
+			return searchNextExecution(epochMillis, timeline, policy);
+		}
+		long start = System.nanoTime();
+		long next = searchNextExecution(epochMillis, timeline, policy);
+		metrics.record(CronMetrics.Operation.NEXT_EXECUTION, expression, System.nanoTime() - start);
+		return next;
+	}
 
-		dayOfWeekField = new DayOfWeekField(FieldType.DAY_OF_WEEK, parts[idx++]);
+	private long searchNextExecution(long epochMillis, ZoneTimeline timeline, OverlapPolicy policy) {
+		// first second which may fire
+		long second = Math.floorDiv(epochMillis, 1000L) + 1;
+		while (true) {
+			int offset = timeline.offsetAt(second);
+			long transition = timeline.previousTransition(second);
+			long end = timeline.nextTransition(second);
+			int before = transition == ZoneTimeline.NO_TRANSITION_BEFORE ? offset : timeline.offsetAt(transition - 1);
 
-		cmd = parts[idx];
+			long low = second + offset;
+			if (policy == OverlapPolicy.FIRE_ONCE && before > offset) {
+				// local times up to transition + before already fired with the earlier offset
+				low = Math.max(low, transition + before);
+			}
+			long localSecond = nextLocalSecond(low);
+			long next = NO_EXECUTION;
+			if (localSecond != NO_EXECUTION && localSecond - offset < end) {
+				next = localSecond - offset;
+			}
 
+			if (before < offset && second < transition + offset - before) {
+				// local times skipped by the gap fire shifted by its length
+				long gapSecond = nextLocalSecond(second + before);
+				if (gapSecond != NO_EXECUTION && gapSecond < transition + offset) {
+					long shifted = gapSecond - before;
+					next = next == NO_EXECUTION ? shifted : Math.min(next, shifted);
+				}
+			}
+
+			if (next != NO_EXECUTION) {
+				return next * 1000L;
+			}
+			if (localSecond == NO_EXECUTION || end == ZoneTimeline.NO_TRANSITION_AFTER) {
+				return NO_EXECUTION;
+			}
+			second = end;
+		}
 	}
 
-	public String describe() {
+	/**
+	 * Last time before given instant at which this expression fired.
+	 * 
+	 * @param before exclusive end
+	 * @param zone   time zone in which the fields are evaluated
+	 * @return previous execution or empty if expression never fired
+	 */
+	public Optional<Instant> previousExecution(Instant before, ZoneId zone) {
+		long previous = previousExecution(before.toEpochMilli(), zone);
+		return previous == NO_EXECUTION ? Optional.empty() : Optional.of(Instant.ofEpochMilli(previous));
+	}
+
+	/**
+	 * Last time before given epoch millis at which this expression fired. Fields are resolved from largest to
+	 * smallest, jumping directly to the previous matching value of each field. Repeated local times fired once, see
+	 * {@link OverlapPolicy#FIRE_ONCE}.
+	 * 
+	 * @param epochMillis exclusive end
+	 * @param zone        time zone in which the fields are evaluated
+	 * @return epoch millis of previous execution or {@link #NO_EXECUTION}
+	 */
+	public long previousExecution(long epochMillis, ZoneId zone) {
+		return previousExecution(epochMillis, ZoneTimeline.of(zone), OverlapPolicy.FIRE_ONCE);
+	}
 
-		StringBuffer result = new StringBuffer("");
+	/**
+	 * Previous execution, walking the periods of constant offset of the zone backwards.
+	 * 
+	 * @param epochMillis exclusive end
+	 * @return epoch millis of previous execution or {@link #NO_EXECUTION}
+	 */
+	long previousExecution(long epochMillis, ZoneTimeline timeline, OverlapPolicy policy) {
+		// last second which may have fired
+		long second = Math.floorDiv(epochMillis - 1, 1000L);
+		while (true) {
+			int offset = timeline.offsetAt(second);
+			long transition = timeline.previousTransition(second);
+			int before = transition == ZoneTimeline.NO_TRANSITION_BEFORE ? offset : timeline.offsetAt(transition - 1);
 
-		Set<Integer> min = minuteField.get();
-		result.append(getString(FieldType.MINUTE.getIdentifier(), min));
-		result.append("\n");
+			long localSecond = previousLocalSecond(second + offset);
+			if (localSecond == NO_EXECUTION) {
+				return NO_EXECUTION;
+			}
+			long low = transition == ZoneTimeline.NO_TRANSITION_BEFORE ? Long.MIN_VALUE : transition + offset;
+			if (policy == OverlapPolicy.FIRE_ONCE && before > offset) {
+				// local times up to transition + before fired with the earlier offset
+				low = transition + before;
+			}
+			long previous = NO_EXECUTION;
+			if (localSecond >= low) {
+				previous = localSecond - offset;
+			}
 
-		Set<Integer> hour = hourField.get();
-		result.append(getString(FieldType.HOUR.getIdentifier(), hour));
-		result.append("\n");
+			if (before < offset) {
+				// local times skipped by the gap fired shifted by its length
+				long high = Math.min(second + before, transition + offset - 1);
+				long gapSecond = previousLocalSecond(high);
+				if (gapSecond != NO_EXECUTION && gapSecond >= transition + before) {
+					previous = Math.max(previous, gapSecond - before);
+				}
+			}
 
-		Set<Integer> dayOfMonth = dayOfMonthField.get();
-		result.append(getString(FieldType.DAY_OF_MONTH.getIdentifier(), dayOfMonth));
-		result.append("\n");
+			if (previous != NO_EXECUTION) {
+				return previous * 1000L;
+			}
+			if (transition == ZoneTimeline.NO_TRANSITION_BEFORE) {
+				return NO_EXECUTION;
+			}
+			second = transition - 1;
+		}
+	}
+
+	/**
+	 * Lazy stream of fire times within a window, latest first. Used to catch up on executions missed between the
+	 * last run and now.
+	 * 
+	 * @param from exclusive start
+	 * @param to   inclusive end
+	 * @param zone time zone in which the fields are evaluated
+	 * @return stream of fire times in descending order
+	 */
+	public Stream<Instant> fireTimesBetween(Instant from, Instant to, ZoneId zone) {
+		long start = from.toEpochMilli();
+		long end = to.toEpochMilli();
+		ZoneTimeline timeline = ZoneTimeline.of(zone);
+		Spliterator<Instant> previousTimes = new Spliterators.AbstractSpliterator<Instant>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE) {
+			private long current = end == Long.MAX_VALUE ? end : end + 1;
 
-		Set<Integer> month = monthField.get();
-		result.append(getString(FieldType.MONTH.getIdentifier(), month));
-		result.append("\n");
+			@Override
+			public boolean tryAdvance(Consumer<? super Instant> action) {
+				if (current <= start) {
+					return false;
+				}
+				long previous = previousExecution(current, timeline, OverlapPolicy.FIRE_ONCE);
+				if (previous == NO_EXECUTION || previous <= start) {
+					current = start;
+					return false;
+				}
+				current = previous;
+				action.accept(Instant.ofEpochMilli(previous));
+				return true;
+			}
+		};
+		return StreamSupport.stream(previousTimes, false);
+	}
 
-		Set<Integer> dayOfWeek = dayOfWeekField.get();
-		result.append(getString(FieldType.DAY_OF_WEEK.getIdentifier(), dayOfWeek));
-		result.append("\n");
+	/**
+	 * Number of fire times within a window, without computing each of them when possible. For fixed offset zones and
+	 * expressions firing at second 0 the count is computed per day from the field cardinalities.
+	 * 
+	 * @param from exclusive start
+	 * @param to   inclusive end
+	 * @param zone time zone in which the fields are evaluated
+	 * @return number of executions
+	 */
+	public long countFireTimesBetween(Instant from, Instant to, ZoneId zone) {
+		long start = from.toEpochMilli();
+		long end = to.toEpochMilli();
+		if (end <= start) {
+			return 0;
+		}
 
-		result.append(getString(COMMAND, Collections.<Integer>emptySet(), cmd));
+		ZoneTimeline timeline = ZoneTimeline.of(zone);
+		if (!timeline.isFixedOffset() || !minuteResolution) {
+			long count = 0;
+			long current = start;
+			while ((current = nextExecution(current, timeline, OverlapPolicy.FIRE_ONCE)) != NO_EXECUTION
+					&& current <= end) {
+				count++;
+			}
+			return count;
+		}
+
+		long offset = timeline.offsetAt(0) * 1000L;
+		long millisPerMinute = CronCalendar.SECONDS_PER_MINUTE * 1000L;
+		long first = Math.floorDiv(start + offset, millisPerMinute) + 1;
+		long last = Math.floorDiv(end + offset, millisPerMinute);
+		if (last < first) {
+			return 0;
+		}
+
+		long firstDay = Math.floorDiv(first, CronCalendar.MINUTES_PER_DAY);
+		long lastDay = Math.floorDiv(last, CronCalendar.MINUTES_PER_DAY);
+		int firstMinuteOfDay = Math.floorMod(first, CronCalendar.MINUTES_PER_DAY);
+		int lastMinuteOfDay = Math.floorMod(last, CronCalendar.MINUTES_PER_DAY);
+		if (firstDay == lastDay) {
+			return countInDay(firstDay, firstMinuteOfDay, lastMinuteOfDay);
+		}
+
+		long count = countInDay(firstDay, firstMinuteOfDay, CronCalendar.MINUTES_PER_DAY - 1)
+				+ countInDay(lastDay, 0, lastMinuteOfDay);
+
+		// whole days in between, a month at a time
+		long perDay = (long) hourField.cardinality() * minuteField.cardinality();
+		long day = firstDay + 1;
+		while (day < lastDay) {
+			int date = CronCalendar.toDate(day);
+			int year = CronCalendar.year(date);
+			int month = CronCalendar.month(date);
+			int length = CronCalendar.monthLength(CronCalendar.monthInfo(year, month));
+			int fromDay = CronCalendar.day(date);
+			int toDay = (int) Math.min(length, fromDay + (lastDay - 1 - day));
+			if (monthField.matches(month) && yearField.matches(year)) {
+				long days = daysOfMonth(year, month) & (-1L << fromDay) & (-1L >>> (Long.SIZE - 1 - toDay));
+				count += Long.bitCount(days) * perDay;
+			}
+			day += toDay - fromDay + 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Number of matching minutes of a local day between two minutes of the day, both inclusive.
+	 */
+	private long countInDay(long epochDay, int fromMinuteOfDay, int toMinuteOfDay) {
+		int date = CronCalendar.toDate(epochDay);
+		int year = CronCalendar.year(date);
+		int month = CronCalendar.month(date);
+		if (!yearField.matches(year) || !monthField.matches(month)
+				|| (daysOfMonth(year, month) & (1L << CronCalendar.day(date))) == 0) {
+			return 0;
+		}
+
+		long count = 0;
+		int fromHour = fromMinuteOfDay / CronCalendar.MINUTES_PER_HOUR;
+		int toHour = toMinuteOfDay / CronCalendar.MINUTES_PER_HOUR;
+		for (int hour = hourField.nextSetAtOrAfter(fromHour); hour >= 0
+				&& hour <= toHour; hour = hourField.nextSetAtOrAfter(hour + 1)) {
+			int fromMinute = hour == fromHour ? fromMinuteOfDay % CronCalendar.MINUTES_PER_HOUR : 0;
+			int toMinute = hour == toHour ? toMinuteOfDay % CronCalendar.MINUTES_PER_HOUR
+					: CronCalendar.MINUTES_PER_HOUR - 1;
+			count += Long.bitCount(
+					minuteField.getBits() & (-1L << fromMinute) & (-1L >>> (Long.SIZE - 1 - toMinute)));
+		}
+		return count;
+	}
+
+	/**
+	 * Lazy stream of fire times after given instant in the system default time zone, like cron does.
+	 * 
+	 * @param from exclusive start
+	 * @return unbounded stream of fire times in ascending order
+	 */
+	public Stream<Instant> fireTimes(Instant from) {
+		return fireTimes(from, ZoneId.systemDefault());
+	}
+
+	/**
+	 * Lazy stream of fire times after given instant, each fire time is computed on demand.
+	 * 
+	 * @param from exclusive start
+	 * @param zone time zone in which the fields are evaluated
+	 * @return unbounded stream of fire times in ascending order
+	 */
+	public Stream<Instant> fireTimes(Instant from, ZoneId zone) {
+		return StreamSupport.stream(
+				new FireTimeSpliterator(inZone(zone), from.toEpochMilli(), FireTimeSpliterator.UNBOUNDED), false);
+	}
+
+	/**
+	 * Lazy stream of fire times within a window. A parallel stream splits the window by time, so a long horizon is
+	 * spread over all cores.
+	 * 
+	 * @param from exclusive start
+	 * @param to   inclusive end
+	 * @param zone time zone in which the fields are evaluated
+	 * @return stream of fire times in ascending order
+	 */
+	public Stream<Instant> fireTimes(Instant from, Instant to, ZoneId zone) {
+		return StreamSupport.stream(new FireTimeSpliterator(inZone(zone), from.toEpochMilli(), to.toEpochMilli()),
+				false);
+	}
+
+	/**
+	 * Find first local second (seconds since 1970-01-01T00:00 local time) at or after given one matching all fields.
+	 * Seconds are resolved within the matching minutes, so a second field of only 0 costs nothing over the minute
+	 * search.
+	 */
+	private long nextLocalSecond(long localSecond) {
+		if (minuteResolution) {
+			long minute = nextLocalMinute(Math.floorDiv(localSecond + SECONDS_PER_MINUTE - 1, SECONDS_PER_MINUTE));
+			return minute == NO_EXECUTION ? NO_EXECUTION : minute * SECONDS_PER_MINUTE;
+		}
+		long minute = Math.floorDiv(localSecond, SECONDS_PER_MINUTE);
+		int second = secondField.nextSetAtOrAfter(Math.floorMod(localSecond, SECONDS_PER_MINUTE));
+		if (second < 0 || nextLocalMinute(minute) != minute) {
+			minute = nextLocalMinute(minute + 1);
+			second = secondField.nextSetAtOrAfter(0);
+		}
+		return minute == NO_EXECUTION ? NO_EXECUTION : minute * SECONDS_PER_MINUTE + second;
+	}
+
+	/**
+	 * Find last local second (seconds since 1970-01-01T00:00 local time) at or before given one matching all fields.
+	 */
+	private long previousLocalSecond(long localSecond) {
+		long minute = Math.floorDiv(localSecond, SECONDS_PER_MINUTE);
+		if (minuteResolution) {
+			minute = previousLocalMinute(minute);
+			return minute == NO_EXECUTION ? NO_EXECUTION : minute * SECONDS_PER_MINUTE;
+		}
+		int second = secondField.previousSetAtOrBefore(Math.floorMod(localSecond, SECONDS_PER_MINUTE));
+		if (second < 0 || previousLocalMinute(minute) != minute) {
+			minute = previousLocalMinute(minute - 1);
+			second = secondField.previousSetAtOrBefore(SECONDS_PER_MINUTE - 1);
+		}
+		return minute == NO_EXECUTION ? NO_EXECUTION : minute * SECONDS_PER_MINUTE + second;
+	}
+
+	/**
+	 * Find first local minute (minutes since 1970-01-01T00:00 local time) at or after given one matching all
+	 * fields but the second.
+	 */
+	private long nextLocalMinute(long localMinute) {
+		int date = CronCalendar.toDate(Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY));
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+
+		int year = CronCalendar.year(date);
+		int month = CronCalendar.month(date);
+		int day = CronCalendar.day(date);
+		int hour = minuteOfDay / CronCalendar.MINUTES_PER_HOUR;
+		int minute = minuteOfDay % CronCalendar.MINUTES_PER_HOUR;
+		// a restricted year field ends the search at its last year
+		boolean everyYear = yearField.isEveryYear();
+		int maxYear = everyYear ? year + MAX_SEARCH_YEARS : Integer.MAX_VALUE;
+
+		while (year <= maxYear) {
+			if (!everyYear) {
+				int nextYear = yearField.nextSetAtOrAfter(year);
+				if (nextYear < 0) {
+					return NO_EXECUTION;
+				}
+				if (nextYear != year) {
+					year = nextYear;
+					month = 1;
+					day = 1;
+					hour = 0;
+					minute = 0;
+				}
+			}
+			int nextMonth = monthField.nextSetAtOrAfter(month);
+			if (nextMonth < 0) {
+				year++;
+				month = 1;
+				day = 1;
+				hour = 0;
+				minute = 0;
+				continue;
+			}
+			if (nextMonth != month) {
+				month = nextMonth;
+				day = 1;
+				hour = 0;
+				minute = 0;
+			}
+
+			long days = daysOfMonth(year, month) & (-1L << day);
+			if (days == 0) {
+				month++;
+				day = 1;
+				hour = 0;
+				minute = 0;
+				continue;
+			}
+			int nextDay = Long.numberOfTrailingZeros(days);
+			if (nextDay != day) {
+				day = nextDay;
+				hour = 0;
+				minute = 0;
+			}
+
+			int nextHour = hourField.nextSetAtOrAfter(hour);
+			if (nextHour < 0) {
+				day++;
+				hour = 0;
+				minute = 0;
+				continue;
+			}
+			if (nextHour != hour) {
+				hour = nextHour;
+				minute = 0;
+			}
+
+			int nextMinute = minuteField.nextSetAtOrAfter(minute);
+			if (nextMinute < 0) {
+				hour++;
+				minute = 0;
+				continue;
+			}
+
+			return CronCalendar.toEpochDay(year, month, day) * CronCalendar.MINUTES_PER_DAY
+					+ hour * CronCalendar.MINUTES_PER_HOUR + nextMinute;
+		}
+		return NO_EXECUTION;
+	}
+
+	/**
+	 * Find last local minute (minutes since 1970-01-01T00:00 local time) at or before given one matching all
+	 * fields but the second.
+	 */
+	private long previousLocalMinute(long localMinute) {
+		int date = CronCalendar.toDate(Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY));
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+
+		int year = CronCalendar.year(date);
+		int month = CronCalendar.month(date);
+		int day = CronCalendar.day(date);
+		int hour = minuteOfDay / CronCalendar.MINUTES_PER_HOUR;
+		int minute = minuteOfDay % CronCalendar.MINUTES_PER_HOUR;
+		boolean everyYear = yearField.isEveryYear();
+		int minYear = everyYear ? year - MAX_SEARCH_YEARS : Integer.MIN_VALUE;
+
+		while (year >= minYear) {
+			if (!everyYear) {
+				int previousYear = yearField.previousSetAtOrBefore(year);
+				if (previousYear < 0) {
+					return NO_EXECUTION;
+				}
+				if (previousYear != year) {
+					year = previousYear;
+					month = 12;
+					day = 31;
+					hour = 23;
+					minute = 59;
+				}
+			}
+			int previousMonth = monthField.previousSetAtOrBefore(month);
+			if (previousMonth < 0) {
+				year--;
+				month = 12;
+				day = 31;
+				hour = 23;
+				minute = 59;
+				continue;
+			}
+			if (previousMonth != month) {
+				month = previousMonth;
+				day = 31;
+				hour = 23;
+				minute = 59;
+			}
+
+			long days = daysOfMonth(year, month) & (-1L >>> (Long.SIZE - 1 - day));
+			if (days == 0) {
+				month--;
+				day = 31;
+				hour = 23;
+				minute = 59;
+				continue;
+			}
+			int previousDay = Long.SIZE - 1 - Long.numberOfLeadingZeros(days);
+			if (previousDay != day) {
+				day = previousDay;
+				hour = 23;
+				minute = 59;
+			}
+
+			int previousHour = hourField.previousSetAtOrBefore(hour);
+			if (previousHour < 0) {
+				day--;
+				hour = 23;
+				minute = 59;
+				continue;
+			}
+			if (previousHour != hour) {
+				hour = previousHour;
+				minute = 59;
+			}
+
+			int previousMinute = minuteField.previousSetAtOrBefore(minute);
+			if (previousMinute < 0) {
+				hour--;
+				minute = 59;
+				continue;
+			}
+
+			return CronCalendar.toEpochDay(year, month, day) * CronCalendar.MINUTES_PER_DAY
+					+ hour * CronCalendar.MINUTES_PER_HOUR + previousMinute;
+		}
+		return NO_EXECUTION;
+	}
+
+	/**
+	 * Days of given month matching the day fields, bit n represents day n. Both fields restricted match either of
+	 * them, otherwise both must match and a field matching every day is skipped.
+	 */
+	private long daysOfMonth(int year, int month) {
+		int monthInfo = CronCalendar.monthInfo(year, month);
+		int length = CronCalendar.monthLength(monthInfo);
+		int firstDayOfWeek = CronCalendar.firstDayOfWeek(monthInfo);
+		switch (dayRule) {
+		case DAYS_OF_MONTH_ONLY:
+			return dayOfMonthField.daysOfMonth(firstDayOfWeek, length);
+		case DAYS_OF_WEEK_ONLY:
+			return dayOfWeekField.daysOfMonth(firstDayOfWeek, length);
+		case DAYS_UNION_RULE:
+			return dayOfMonthField.daysOfMonth(firstDayOfWeek, length)
+					| dayOfWeekField.daysOfMonth(firstDayOfWeek, length);
+		default:
+			return dayOfMonthField.daysOfMonth(firstDayOfWeek, length)
+					& dayOfWeekField.daysOfMonth(firstDayOfWeek, length);
+		}
+	}
+
+	/**
+	 * Check if the local day matches the year and the day fields, month and time of day are not checked.
+	 */
+	boolean matchesDay(long epochDay) {
+		int date = CronCalendar.toDate(epochDay);
+		int year = CronCalendar.year(date);
+		return yearField.matches(year)
+				&& (daysOfMonth(year, CronCalendar.month(date)) & (1L << CronCalendar.day(date))) != 0;
+	}
+
+	/**
+	 * @return true if a day matches when either day of month or day of week matches
+	 */
+	boolean isDaysUnion() {
+		return dayRule == DAYS_UNION_RULE;
+	}
+
+	/**
+	 * @return day of week mask with {@link #DAYS_UNION} set when the day fields match if either of them matches
+	 */
+	long getDaysOfWeekMask() {
+		return dayOfWeekField.getBits() | (isDaysUnion() ? DAYS_UNION : 0L);
+	}
+
+	/**
+	 * @return true if the second field is only 0, so every execution is at the start of a minute
+	 */
+	boolean isMinuteResolution() {
+		return minuteResolution;
+	}
+
+	/**
+	 * @return true if a day field has L, W or # parts, which are not part of the compiled bit masks
+	 */
+	boolean isCalendarDependent() {
+		return dayOfMonthField.isCalendarDependent() || dayOfWeekField.isCalendarDependent();
+	}
+
+	/**
+	 * Check expression is fully described by the masks of its {@link #UNIX_FIELDS}, for stores keeping only these.
+	 */
+	static CronExpression requireStatic(CronExpression exp) {
+		if (exp.isCalendarDependent() || !exp.minuteResolution || !exp.yearField.isEveryYear()) {
+			throw new IllegalArgumentException(String.format(
+					"Unsupported cron expression [%s], seconds, years and L, W or # days cannot be stored as masks",
+					exp));
+		}
+		return exp;
+	}
+
+	/**
+	 * Table of the values of each field, one line per field with the name padded to a column followed by the values
+	 * separated by a space, and the command on the last line without line break. Second and year are only listed
+	 * when part of the expression, fields without values, like days of L, W and # parts, list none.
+	 * 
+	 * @return description
+	 */
+	public String describe() {
+		StringBuilder result = new StringBuilder(DESCRIPTION_CAPACITY);
+		try {
+			describeTo(result);
+		} catch (IOException e) {
+			// a StringBuilder does not throw
+			throw new UncheckedIOException(e);
+		}
 		return result.toString();
+	}
+
+	/**
+	 * Write {@link #describe()} to out, without building the description first.
+	 * 
+	 * @param out
+	 * @throws IOException if out fails
+	 */
+	public void describeTo(Appendable out) throws IOException {
+		IntAppender values = new IntAppender(out);
+		if (secondField != ZERO_SECOND) {
+			appendLine(values, FieldType.SECOND.getIdentifier(), secondField);
+		}
+		appendLine(values, FieldType.MINUTE.getIdentifier(), minuteField);
+		appendLine(values, FieldType.HOUR.getIdentifier(), hourField);
+		appendLine(values, FieldType.DAY_OF_MONTH.getIdentifier(), dayOfMonthField);
+		appendLine(values, FieldType.MONTH.getIdentifier(), monthField);
+		appendLine(values, FieldType.DAY_OF_WEEK.getIdentifier(), dayOfWeekField);
+		if (yearField != EVERY_YEAR) {
+			appendLine(values, FieldType.YEAR.getIdentifier(), yearField);
+		}
+		appendName(out, COMMAND);
+		out.append(cmd);
+	}
+
+	/**
+	 * Write the descriptions of expressions to out, separated by an empty line and each ending with a line break.
+	 * 
+	 * @param expressions
+	 * @param out         buffered by the caller
+	 * @throws IOException if out fails
+	 */
+	public static void describeAll(Iterable<CronExpression> expressions, Appendable out) throws IOException {
+		boolean first = true;
+		for (CronExpression expression : expressions) {
+			if (!first) {
+				out.append('\n');
+			}
+			expression.describeTo(out);
+			out.append('\n');
+			first = false;
+		}
+	}
+
+	/**
+	 * Write the descriptions of expressions to a UTF-8 file through one buffer, replacing an existing file. See
+	 * {@link #describeAll(Iterable, Appendable)}.
+	 * 
+	 * @param expressions
+	 * @param file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void describeAll(Iterable<CronExpression> expressions, Path file) throws IOException {
+		try (Writer out = new BufferedWriter(
+				new OutputStreamWriter(Files.newOutputStream(file), StandardCharsets.UTF_8), DESCRIPTION_BUFFER)) {
+			describeAll(expressions, out);
+		}
+	}
+
+	private static void appendLine(IntAppender values, String identifier, BaseField field) throws IOException {
+		appendName(values.out, identifier);
+		values.first = true;
+		field.forEach(values);
+		if (values.failure != null) {
+			throw values.failure;
+		}
+		values.out.append('\n');
+	}
 
+	/**
+	 * Name padded with spaces to the value column.
+	 */
+	private static void appendName(Appendable out, String identifier) throws IOException {
+		out.append(identifier);
+		for (int i = identifier.length(); i <= MAX_COLM_LENGTH; i++) {
+			out.append(' ');
+		}
+	}
+
+	/**
+	 * Appends the values of a line separated by a space, digit by digit so no string is created per value.
+	 */
+	private static final class IntAppender implements IntConsumer {
+		final Appendable out;
+		boolean first;
+		IOException failure;
+
+		IntAppender(Appendable out) {
+			this.out = out;
+		}
+
+		@Override
+		public void accept(int value) {
+			if (failure != null) {
+				return;
+			}
+			try {
+				if (!first) {
+					out.append(' ');
+				}
+				first = false;
+				// field values are 0 to 2199
+				if (value >= 1000) {
+					out.append((char) ('0' + value / 1000));
+				}
+				if (value >= 100) {
+					out.append((char) ('0' + value / 100 % 10));
+				}
+				if (value >= 10) {
+					out.append((char) ('0' + value / 10 % 10));
+				}
+				out.append((char) ('0' + value % 10));
+			} catch (IOException e) {
+				failure = e;
+			}
+		}
 	}
 
 	public StringBuffer getString(String identifier, Set<Integer> min, String... cmd) {
 
 		StringBuffer result = new StringBuffer(identifier);
 		while (result.length() <= MAX_COLM_LENGTH) {
-			result.append('\s');
+			result.append(' ');
 		}
 
 		if (null != cmd && cmd.length > 0) {
 			result.append(cmd[0]);
 		} else {
-			result.append(min.stream().map(t -> Integer.toString(t)).reduce((s1, s2) -> s1 + '\s' + s2).get());
+			boolean first = true;
+			for (Integer value : min) {
+				if (!first) {
+					result.append(' ');
+				}
+				result.append(value.intValue());
+				first = false;
+			}
 		}
 
 		return result;
@@ -191,6 +1307,44 @@ public class CronExpression {
 		}
 	}
 
+	/**
+	 * @return second field, only 0 when the expression has no seconds
+	 */
+	public SimpleField getSecondField() {
+		return secondField;
+	}
+
+	public SimpleField getMinuteField() {
+		return minuteField;
+	}
+
+	public SimpleField getHourField() {
+		return hourField;
+	}
+
+	public DayOfMonthField getDayOfMonthField() {
+		return dayOfMonthField;
+	}
+
+	public SimpleField getMonthField() {
+		return monthField;
+	}
+
+	public DayOfWeekField getDayOfWeekField() {
+		return dayOfWeekField;
+	}
+
+	/**
+	 * @return year field, every year when the expression has no year
+	 */
+	public YearField getYearField() {
+		return yearField;
+	}
+
+	public String getCommand() {
+		return cmd;
+	}
+
 	@Override
 	public String toString() {
 		return expression;
@@ -0,0 +1,91 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded concurrent cache of parsed expressions keyed by schedule, see {@link CronExpression#of(String)}.
+ * <P>
+ * Lookups of cached schedules are lock free. When the cache grows beyond its maximum size the oldest schedules
+ * are evicted first.
+ */
+public final class CronExpressionCache {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+	private final int maximumSize;
+	private final ConcurrentHashMap<String, CronExpression> entries = new ConcurrentHashMap<>();
+	private final Queue<String> insertionOrder = new ConcurrentLinkedQueue<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	CronExpressionCache(int maximumSize) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Invalid maximum size [" + maximumSize + "], must be positive");
+		}
+		this.maximumSize = maximumSize;
+	}
+
+	CronExpression get(String key, Function<String, CronExpression> loader) {
+		CronExpression cached = entries.get(key);
+		if (cached != null) {
+			hits.increment();
+			return cached;
+		}
+
+		boolean[] loaded = new boolean[1];
+		cached = entries.computeIfAbsent(key, k -> {
+			loaded[0] = true;
+			return loader.apply(k);
+		});
+		if (!loaded[0]) {
+			hits.increment();
+			return cached;
+		}
+
+		misses.increment();
+		insertionOrder.add(key);
+		while (entries.size() > maximumSize) {
+			String eldest = insertionOrder.poll();
+			if (eldest == null) {
+				break;
+			}
+			if (entries.remove(eldest) != null) {
+				evictions.increment();
+			}
+		}
+		return cached;
+	}
+
+	/**
+	 * Remove all cached schedules, counters are not reset.
+	 */
+	public void clear() {
+		entries.clear();
+		insertionOrder.clear();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+}
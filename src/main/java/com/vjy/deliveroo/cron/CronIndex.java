@@ -0,0 +1,286 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+import com.vjy.deliveroo.cron.fields.SimpleField;
+
+/**
+ * Index answering which of many expressions fire at a given minute.
+ * <P>
+ * For every value of every field the index keeps the set of schedule ids having that value, e.g. minute 5 maps to
+ * all schedules firing at minute 5. Schedules firing at a minute are the intersection of the five sets for its
+ * minute, hour, day of month, month and day of week. Each set has a summary level so the intersection only visits
+ * words where all five sets have schedules.
+ * <P>
+ * Days of L, W and # parts depend on the month and restricted day of month and day of week fields match if either
+ * matches, so such schedules are indexed under every day and checked against their expression after the
+ * intersection, as are schedules restricted to some years. Schedules with seconds are
+ * reported for each minute in which they fire.
+ * <P>
+ * Ids are dense and reused after {@link #remove(int)}. The index is not thread safe.
+ */
+public final class CronIndex {
+
+	private final ZoneTimeline timeline;
+	private final IdBitSet[] minutes = newSets(FieldType.MINUTE);
+	private final IdBitSet[] hours = newSets(FieldType.HOUR);
+	private final IdBitSet[] daysOfMonth = newSets(FieldType.DAY_OF_MONTH);
+	private final IdBitSet[] months = newSets(FieldType.MONTH);
+	private final IdBitSet[] daysOfWeek = newSets(FieldType.DAY_OF_WEEK);
+	// ids checked against their expression after the intersection
+	private final IdBitSet filtered = new IdBitSet();
+
+	private CronExpression[] schedules = new CronExpression[64];
+	private int[] freeIds = new int[16];
+	private int freeCount;
+	private int nextId;
+	private int size;
+
+	/**
+	 * @param zone time zone in which the fields are evaluated
+	 */
+	public CronIndex(ZoneId zone) {
+		this.timeline = ZoneTimeline.of(zone);
+	}
+
+	private static IdBitSet[] newSets(FieldType type) {
+		IdBitSet[] sets = new IdBitSet[type.getTo() + 1];
+		for (int i = type.getFrom(); i <= type.getTo(); i++) {
+			sets[i] = new IdBitSet();
+		}
+		return sets;
+	}
+
+	/**
+	 * Add expression to the index.
+	 * 
+	 * @param exp
+	 * @return id of the expression
+	 */
+	public int add(CronExpression exp) {
+		int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+		if (id >= schedules.length) {
+			schedules = Arrays.copyOf(schedules, schedules.length * 2);
+		}
+		schedules[id] = exp;
+		size++;
+		index(id, exp, true);
+		return id;
+	}
+
+	/**
+	 * Remove expression from the index, its id may be reused by later additions.
+	 * 
+	 * @param id
+	 * @return removed expression or null if id is unknown
+	 */
+	public CronExpression remove(int id) {
+		CronExpression exp = get(id);
+		if (exp == null) {
+			return null;
+		}
+		index(id, exp, false);
+		schedules[id] = null;
+		size--;
+		if (freeCount == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeIds.length * 2);
+		}
+		freeIds[freeCount++] = id;
+		return exp;
+	}
+
+	/**
+	 * Replace the expression of an id, only the entries of the field values which differ between the expressions are
+	 * updated. Cheaper than remove and add when an edit changes one field, see
+	 * {@link CronExpression#withField(FieldType, String)}.
+	 * 
+	 * @param id
+	 * @param exp
+	 * @return replaced expression or null if id is unknown, then nothing is added
+	 */
+	public CronExpression replace(int id, CronExpression exp) {
+		CronExpression old = get(id);
+		if (old == null) {
+			return null;
+		}
+		schedules[id] = exp;
+		reindex(id, old.getMinuteField().getBits(), exp.getMinuteField().getBits(), minutes);
+		reindex(id, old.getHourField().getBits(), exp.getHourField().getBits(), hours);
+		reindex(id, old.getMonthField().getBits(), exp.getMonthField().getBits(), months);
+		reindex(id, indexedBits(old, FieldType.DAY_OF_MONTH), indexedBits(exp, FieldType.DAY_OF_MONTH), daysOfMonth);
+		reindex(id, indexedBits(old, FieldType.DAY_OF_WEEK), indexedBits(exp, FieldType.DAY_OF_WEEK), daysOfWeek);
+		if (isFiltered(exp)) {
+			filtered.set(id);
+		} else {
+			filtered.clear(id);
+		}
+		return old;
+	}
+
+	public CronExpression get(int id) {
+		return id >= 0 && id < nextId ? schedules[id] : null;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void index(int id, CronExpression exp, boolean add) {
+		index(id, exp.getMinuteField(), minutes, add);
+		index(id, exp.getHourField(), hours, add);
+		index(id, exp.getMonthField(), months, add);
+		index(id, indexedBits(exp, FieldType.DAY_OF_MONTH), daysOfMonth, add);
+		index(id, indexedBits(exp, FieldType.DAY_OF_WEEK), daysOfWeek, add);
+		if (add && isFiltered(exp)) {
+			filtered.set(id);
+		} else {
+			filtered.clear(id);
+		}
+	}
+
+	private static boolean isEveryDay(CronExpression exp) {
+		return exp.isCalendarDependent() || exp.isDaysUnion();
+	}
+
+	private static boolean isFiltered(CronExpression exp) {
+		return isEveryDay(exp) || !exp.getYearField().isEveryYear();
+	}
+
+	/**
+	 * Indexed values of a day field, every day for schedules whose days are checked after the intersection.
+	 */
+	private static long indexedBits(CronExpression exp, FieldType type) {
+		if (isEveryDay(exp)) {
+			return allBits(type);
+		}
+		return type == FieldType.DAY_OF_MONTH ? exp.getDayOfMonthField().getBits() : exp.getDayOfWeekField().getBits();
+	}
+
+	/**
+	 * Remove id from the sets of values only in the old bits and add it to those only in the new bits.
+	 */
+	private static void reindex(int id, long oldBits, long newBits, IdBitSet[] sets) {
+		index(id, oldBits & ~newBits, sets, false);
+		index(id, newBits & ~oldBits, sets, true);
+	}
+
+	private static long allBits(FieldType type) {
+		return (-1L << type.getFrom()) & (-1L >>> (Long.SIZE - 1 - type.getTo()));
+	}
+
+	private static void index(int id, SimpleField field, IdBitSet[] sets, boolean add) {
+		index(id, field.getBits(), sets, add);
+	}
+
+	private static void index(int id, long bits, IdBitSet[] sets, boolean add) {
+		while (bits != 0) {
+			IdBitSet set = sets[Long.numberOfTrailingZeros(bits)];
+			if (add) {
+				set.set(id);
+			} else {
+				set.clear(id);
+			}
+			bits &= bits - 1;
+		}
+	}
+
+	/**
+	 * Ids of all expressions firing at given minute.
+	 * 
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @return ids in ascending order
+	 */
+	public int[] firingAt(long epochMinute) {
+		IdCollector ids = new IdCollector();
+		forEachFiringAt(epochMinute, ids);
+		return ids.toArray();
+	}
+
+	/**
+	 * Pass id of every expression firing at given minute to action, in ascending order. Daylight saving time
+	 * transitions are handled like {@link CronExpression#nextExecution(long, ZoneId)}, local times skipped by a gap
+	 * fire shifted by its length and repeated local times fire once.
+	 * 
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @param action
+	 */
+	public void forEachFiringAt(long epochMinute, IntConsumer action) {
+		CronMetrics metrics = Instrumentation.metrics;
+		if (metrics == CronMetrics.NOOP) {
+			matchAll(epochMinute, action);
+			return;
+		}
+		long start = System.nanoTime();
+		matchAll(epochMinute, action);
+		metrics.record(CronMetrics.Operation.MATCH, null, System.nanoTime() - start);
+	}
+
+	private void matchAll(long epochMinute, IntConsumer action) {
+		long localMinute = timeline.localMinute(epochMinute, OverlapPolicy.FIRE_ONCE);
+		long gapMinute = timeline.gapMinute(epochMinute);
+		if (gapMinute == ZoneTimeline.NO_LOCAL_MINUTE) {
+			if (localMinute != ZoneTimeline.NO_LOCAL_MINUTE) {
+				matchLocal(localMinute, action);
+			}
+			return;
+		}
+		// within a gap the wall clock minute and the skipped minute fire, report each id once
+		BitSet ids = new BitSet();
+		matchLocal(localMinute, ids::set);
+		matchLocal(gapMinute, ids::set);
+		ids.stream().forEach(action);
+	}
+
+	private void matchLocal(long localMinute, IntConsumer action) {
+		long epochDay = Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int date = CronCalendar.toDate(epochDay);
+
+		IdBitSet minute = minutes[minuteOfDay % CronCalendar.MINUTES_PER_HOUR];
+		IdBitSet hour = hours[minuteOfDay / CronCalendar.MINUTES_PER_HOUR];
+		IdBitSet dayOfMonth = daysOfMonth[CronCalendar.day(date)];
+		IdBitSet month = months[CronCalendar.month(date)];
+		IdBitSet dayOfWeek = daysOfWeek[CronCalendar.dayOfWeek(epochDay)];
+
+		int summaryLength = Math.min(Math.min(minute.summary.length, hour.summary.length),
+				Math.min(Math.min(dayOfMonth.summary.length, month.summary.length), dayOfWeek.summary.length));
+		for (int i = 0; i < summaryLength; i++) {
+			long candidates = minute.summary[i] & hour.summary[i] & dayOfMonth.summary[i] & month.summary[i]
+					& dayOfWeek.summary[i];
+			while (candidates != 0) {
+				int word = (i << 6) + Long.numberOfTrailingZeros(candidates);
+				long ids = minute.words[word] & hour.words[word] & dayOfMonth.words[word] & month.words[word]
+						& dayOfWeek.words[word];
+				while (ids != 0) {
+					int id = (word << 6) + Long.numberOfTrailingZeros(ids);
+					if (!filtered.get(id) || schedules[id].matchesDay(epochDay)) {
+						action.accept(id);
+					}
+					ids &= ids - 1;
+				}
+				candidates &= candidates - 1;
+			}
+		}
+	}
+
+	private static final class IdCollector implements IntConsumer {
+		private int[] ids = new int[16];
+		private int count;
+
+		@Override
+		public void accept(int id) {
+			if (count == ids.length) {
+				ids = Arrays.copyOf(ids, count * 2);
+			}
+			ids[count++] = id;
+		}
+
+		int[] toArray() {
+			return Arrays.copyOf(ids, count);
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * Matcher testing many expressions against one minute, over the field masks packed into one primitive array.
+ * <P>
+ * The masks are tested with the Vector API when the <code>jdk.incubator.vector</code> module is present, started
+ * with <code>--add-modules jdk.incubator.vector</code>, and by a scalar loop otherwise. Both kernels give the same
+ * result.
+ * <P>
+ * Expressions are identified by their position in the collection given to the constructor. Immutable and thread
+ * safe.
+ */
+public final class CronMatcher {
+
+	private static final int FIELDS = 5;
+	private static final MatchKernel VECTOR = vectorKernel();
+
+	private final ZoneTimeline timeline;
+	// one column per field, each padded to a multiple of 64 schedules
+	private final long[] bits;
+	private final int stride;
+	private final int size;
+	private final MatchKernel kernel;
+
+	/**
+	 * Matcher using the vector kernel when available.
+	 *
+	 * @param zone        time zone in which the fields are evaluated
+	 * @param expressions
+	 */
+	public CronMatcher(ZoneId zone, Collection<CronExpression> expressions) {
+		this(zone, expressions, true);
+	}
+
+	/**
+	 * @param zone        time zone in which the fields are evaluated
+	 * @param expressions
+	 * @param vectorized  false to use the scalar kernel even if the vector kernel is available
+	 * @throws IllegalArgumentException if an expression has seconds, a year or L, W or # days
+	 */
+	public CronMatcher(ZoneId zone, Collection<CronExpression> expressions, boolean vectorized) {
+		this.timeline = ZoneTimeline.of(zone);
+		this.size = expressions.size();
+		this.stride = (size + Long.SIZE - 1) & -Long.SIZE;
+		this.bits = new long[FIELDS * stride];
+		this.kernel = vectorized && VECTOR != null ? VECTOR : MatchKernel.SCALAR;
+		int i = 0;
+		for (CronExpression exp : expressions) {
+			CronExpression.requireStatic(exp);
+			long[] masks = { exp.getMinuteField().getBits(), exp.getHourField().getBits(),
+					exp.getDayOfMonthField().getBits(), exp.getMonthField().getBits(), exp.getDaysOfWeekMask() };
+			for (int field = 0; field < FIELDS; field++) {
+				bits[field * stride + i] = masks[field];
+			}
+			i++;
+		}
+	}
+
+	private static MatchKernel vectorKernel() {
+		if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			return null;
+		}
+		try {
+			return (MatchKernel) Class.forName("com.vjy.deliveroo.cron.VectorMatchKernel").getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException | LinkageError e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if the vector kernel can be used in this runtime
+	 */
+	public static boolean isVectorSupported() {
+		return VECTOR != null;
+	}
+
+	/**
+	 * @return true if this matcher uses the vector kernel
+	 */
+	public boolean isVectorized() {
+		return kernel != MatchKernel.SCALAR;
+	}
+
+	/**
+	 * @return number of expressions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Pass index of every expression firing at given minute to action, in ascending order. Daylight saving time
+	 * transitions are handled like {@link CronExpression#nextExecution(long, ZoneId)}, local times skipped by a gap
+	 * fire shifted by its length and repeated local times fire once.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @param action
+	 */
+	public void forEachFiringAt(long epochMinute, IntConsumer action) {
+		long localMinute = timeline.localMinute(epochMinute, OverlapPolicy.FIRE_ONCE);
+		long gapMinute = timeline.gapMinute(epochMinute);
+		if (gapMinute == ZoneTimeline.NO_LOCAL_MINUTE) {
+			if (localMinute != ZoneTimeline.NO_LOCAL_MINUTE) {
+				forEachMatching(localMinute, action);
+			}
+			return;
+		}
+		// within a gap the wall clock minute and the skipped minute fire, report each index once
+		BitSet indexes = new BitSet();
+		forEachMatching(localMinute, indexes::set);
+		forEachMatching(gapMinute, indexes::set);
+		indexes.stream().forEach(action);
+	}
+
+	private void forEachMatching(long localMinute, IntConsumer action) {
+		long epochDay = Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int date = CronCalendar.toDate(epochDay);
+		forEachMatching(minuteOfDay % CronCalendar.MINUTES_PER_HOUR, minuteOfDay / CronCalendar.MINUTES_PER_HOUR,
+				CronCalendar.day(date), CronCalendar.month(date), CronCalendar.dayOfWeek(epochDay), action);
+	}
+
+	/**
+	 * Pass index of every expression matching the local date and time to action, in ascending order.
+	 *
+	 * @param minute
+	 * @param hour
+	 * @param dayOfMonth
+	 * @param month
+	 * @param dayOfWeek  1 (Monday) to 7 (Sunday)
+	 * @param action
+	 */
+	public void forEachMatching(int minute, int hour, int dayOfMonth, int month, int dayOfWeek, IntConsumer action) {
+		CronMetrics metrics = Instrumentation.metrics;
+		if (metrics == CronMetrics.NOOP) {
+			matchAll(minute, hour, dayOfMonth, month, dayOfWeek, action);
+			return;
+		}
+		long start = System.nanoTime();
+		matchAll(minute, hour, dayOfMonth, month, dayOfWeek, action);
+		metrics.record(CronMetrics.Operation.MATCH, null, System.nanoTime() - start);
+	}
+
+	private void matchAll(int minute, int hour, int dayOfMonth, int month, int dayOfWeek, IntConsumer action) {
+		for (int block = 0; block < size; block += Long.SIZE) {
+			// padding schedules have empty masks and never match
+			long matches = kernel.match(bits, stride, block, block + Long.SIZE, minute, hour, dayOfMonth, month,
+					dayOfWeek);
+			while (matches != 0) {
+				action.accept(block + Long.numberOfTrailingZeros(matches));
+				matches &= matches - 1;
+			}
+		}
+	}
+
+	/**
+	 * Count expressions matching the local date and time.
+	 *
+	 * @return number of matching expressions
+	 */
+	public int countMatching(int minute, int hour, int dayOfMonth, int month, int dayOfWeek) {
+		CronMetrics metrics = Instrumentation.metrics;
+		if (metrics == CronMetrics.NOOP) {
+			return countAll(minute, hour, dayOfMonth, month, dayOfWeek);
+		}
+		long start = System.nanoTime();
+		int count = countAll(minute, hour, dayOfMonth, month, dayOfWeek);
+		metrics.record(CronMetrics.Operation.MATCH, null, System.nanoTime() - start);
+		return count;
+	}
+
+	private int countAll(int minute, int hour, int dayOfMonth, int month, int dayOfWeek) {
+		int count = 0;
+		for (int block = 0; block < size; block += Long.SIZE) {
+			count += Long.bitCount(
+					kernel.match(bits, stride, block, block + Long.SIZE, minute, hour, dayOfMonth, month, dayOfWeek));
+		}
+		return count;
+	}
+}
@@ -0,0 +1,69 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.Objects;
+
+/**
+ * Receiver of the timings of parsing and evaluation, installed once per JVM with {@link #install(CronMetrics)}.
+ * <P>
+ * Implementations are called on the parsing and evaluating threads, so they must be thread safe and should not
+ * block, see {@link RecordingCronMetrics}. While {@link #NOOP}, the default, is installed the hot paths do not read
+ * the clock and only pay for one volatile read, <code>CronMetricsBenchmark</code> measures both cases.
+ */
+@FunctionalInterface
+public interface CronMetrics {
+
+	/**
+	 * Timed operations.
+	 */
+	enum Operation {
+		/**
+		 * {@link CronExpression#CronExpression(String)}, from text to compiled expression. Cache hits of
+		 * {@link CronExpression#of(String)} do not parse.
+		 */
+		PARSE,
+		/**
+		 * Parsing and compiling the fields to bit masks, part of {@link #PARSE}.
+		 */
+		EXPAND,
+		/**
+		 * Search of the next execution of an expression, in any zone and with any {@link OverlapPolicy}.
+		 */
+		NEXT_EXECUTION,
+		/**
+		 * One minute matched against all schedules of a {@link CronMatcher}, {@link CronStore}, {@link CronIndex}
+		 * or {@link CronSnapshot}, including the action called per match. Recorded without expression.
+		 */
+		MATCH
+	}
+
+	/**
+	 * Metrics ignoring all timings, the hot paths skip timing while it is installed.
+	 */
+	CronMetrics NOOP = (operation, expression, nanos) -> {
+	};
+
+	/**
+	 * Record one completed operation, failed operations are not recorded.
+	 *
+	 * @param operation
+	 * @param expression text of the expression, null for {@link Operation#MATCH}
+	 * @param nanos      elapsed time
+	 */
+	void record(Operation operation, String expression, long nanos);
+
+	/**
+	 * Install metrics receiving the timings of all threads, replacing the installed metrics.
+	 *
+	 * @param metrics {@link #NOOP} to disable timing
+	 */
+	static void install(CronMetrics metrics) {
+		Instrumentation.metrics = Objects.requireNonNull(metrics, "metrics");
+	}
+
+	/**
+	 * @return installed metrics, {@link #NOOP} unless others were installed
+	 */
+	static CronMetrics installed() {
+		return Instrumentation.metrics;
+	}
+}
@@ -0,0 +1,277 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+/**
+ * Concurrent registry of expressions keyed by schedule id, for a control plane changing schedules while a dispatcher
+ * reads them.
+ * <P>
+ * The registry is an immutable {@link Snapshot} behind one atomic reference, so reads and snapshots are lock free
+ * and never block writers. Ids are spread over stripes, each stripe an immutable pair of sorted id and expression
+ * arrays. A write copies the arrays of one stripe under the lock of that stripe, so writers of different stripes do
+ * not wait for each other, then publishes a new snapshot sharing the other stripes with a compare and set, retried
+ * while other stripes are published. A snapshot is a consistent point in time view of all stripes, which the
+ * dispatcher can iterate while writers go on.
+ */
+public final class CronRegistry {
+
+	public static final int DEFAULT_STRIPES = 64;
+
+	private final Object[] locks;
+	private final int mask;
+	private final AtomicReference<Snapshot> current;
+
+	public CronRegistry() {
+		this(DEFAULT_STRIPES);
+	}
+
+	/**
+	 * @param stripes number of stripes, rounded up to a power of two
+	 */
+	public CronRegistry(int stripes) {
+		if (stripes < 1 || stripes > 1 << 16) {
+			throw new IllegalArgumentException(
+					String.format("Invalid stripes [%s], must be in range [1-65536]", stripes));
+		}
+		int count = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+		this.locks = new Object[count];
+		for (int i = 0; i < count; i++) {
+			locks[i] = new Object();
+		}
+		this.mask = count - 1;
+		Stripe[] empty = new Stripe[count];
+		Arrays.fill(empty, Stripe.EMPTY);
+		this.current = new AtomicReference<>(new Snapshot(empty, 0, 0L));
+	}
+
+	private int stripe(long id) {
+		// spread the id so sequential ids use all stripes
+		long hash = id * 0x9E3779B97F4A7C15L;
+		return (int) (hash >>> 32) & mask;
+	}
+
+	/**
+	 * Add or replace the expression of a schedule.
+	 *
+	 * @param id
+	 * @param expression
+	 * @return replaced expression or null if id was not registered
+	 */
+	public CronExpression put(long id, CronExpression expression) {
+		if (expression == null) {
+			throw new IllegalArgumentException("Expression must not be null");
+		}
+		int s = stripe(id);
+		synchronized (locks[s]) {
+			Stripe stripe = current.get().stripes[s];
+			int idx = Arrays.binarySearch(stripe.ids, id);
+			if (idx >= 0) {
+				CronExpression previous = stripe.expressions[idx];
+				if (previous != expression) {
+					publish(s, stripe.replace(idx, expression), 0);
+				}
+				return previous;
+			}
+			publish(s, stripe.insert(-idx - 1, id, expression), 1);
+			return null;
+		}
+	}
+
+	/**
+	 * Replace one field of a registered schedule, atomically with other writes of the schedule. Only the field is
+	 * parsed, see {@link CronExpression#withField(FieldType, String)}.
+	 *
+	 * @param id
+	 * @param type
+	 * @param field field expression
+	 * @return new expression or null if id is unknown
+	 * @throws IllegalArgumentException if field is not valid for type
+	 */
+	public CronExpression withField(long id, FieldType type, String field) {
+		int s = stripe(id);
+		synchronized (locks[s]) {
+			Stripe stripe = current.get().stripes[s];
+			int idx = Arrays.binarySearch(stripe.ids, id);
+			if (idx < 0) {
+				return null;
+			}
+			CronExpression edited = stripe.expressions[idx].withField(type, field);
+			publish(s, stripe.replace(idx, edited), 0);
+			return edited;
+		}
+	}
+
+	/**
+	 * Remove a schedule.
+	 *
+	 * @param id
+	 * @return removed expression or null if id is unknown
+	 */
+	public CronExpression remove(long id) {
+		int s = stripe(id);
+		synchronized (locks[s]) {
+			Stripe stripe = current.get().stripes[s];
+			int idx = Arrays.binarySearch(stripe.ids, id);
+			if (idx < 0) {
+				return null;
+			}
+			CronExpression previous = stripe.expressions[idx];
+			publish(s, stripe.delete(idx), -1);
+			return previous;
+		}
+	}
+
+	/**
+	 * Replace stripe s, the caller holds its lock so only other stripes change between attempts.
+	 */
+	private void publish(int s, Stripe stripe, int sizeChange) {
+		while (true) {
+			Snapshot snapshot = current.get();
+			Stripe[] stripes = snapshot.stripes.clone();
+			stripes[s] = stripe;
+			if (current.compareAndSet(snapshot,
+					new Snapshot(stripes, snapshot.size + sizeChange, snapshot.version + 1))) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return expression of the schedule or null if id is unknown
+	 */
+	public CronExpression get(long id) {
+		return current.get().get(id);
+	}
+
+	/**
+	 * @return number of registered schedules
+	 */
+	public int size() {
+		return current.get().size;
+	}
+
+	/**
+	 * Current state of the registry, not affected by later writes.
+	 *
+	 * @return snapshot
+	 */
+	public Snapshot snapshot() {
+		return current.get();
+	}
+
+	/**
+	 * Receiver of the schedules of a snapshot.
+	 */
+	@FunctionalInterface
+	public interface ScheduleConsumer {
+		void accept(long id, CronExpression expression);
+	}
+
+	/**
+	 * Immutable state of a registry at one point in time.
+	 */
+	public final class Snapshot {
+
+		private final Stripe[] stripes;
+		private final int size;
+		private final long version;
+
+		private Snapshot(Stripe[] stripes, int size, long version) {
+			this.stripes = stripes;
+			this.size = size;
+			this.version = version;
+		}
+
+		/**
+		 * @param id
+		 * @return expression of the schedule or null if id is unknown
+		 */
+		public CronExpression get(long id) {
+			Stripe stripe = stripes[stripe(id)];
+			int idx = Arrays.binarySearch(stripe.ids, id);
+			return idx >= 0 ? stripe.expressions[idx] : null;
+		}
+
+		/**
+		 * @return number of schedules
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @return number of writes before this snapshot, equal versions of one registry have the same schedules
+		 */
+		public long version() {
+			return version;
+		}
+
+		/**
+		 * Pass every schedule to action, by stripe and by ascending id within a stripe.
+		 *
+		 * @param action
+		 */
+		public void forEach(ScheduleConsumer action) {
+			for (Stripe stripe : stripes) {
+				long[] ids = stripe.ids;
+				CronExpression[] expressions = stripe.expressions;
+				for (int i = 0; i < ids.length; i++) {
+					action.accept(ids[i], expressions[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Schedules of one stripe, sorted by id. Never modified, writes copy the arrays.
+	 */
+	private static final class Stripe {
+
+		static final Stripe EMPTY = new Stripe(new long[0], new CronExpression[0]);
+
+		final long[] ids;
+		final CronExpression[] expressions;
+
+		Stripe(long[] ids, CronExpression[] expressions) {
+			this.ids = ids;
+			this.expressions = expressions;
+		}
+
+		Stripe replace(int idx, CronExpression expression) {
+			CronExpression[] replaced = expressions.clone();
+			replaced[idx] = expression;
+			return new Stripe(ids, replaced);
+		}
+
+		Stripe insert(int idx, long id, CronExpression expression) {
+			int length = ids.length;
+			long[] newIds = new long[length + 1];
+			CronExpression[] newExpressions = new CronExpression[length + 1];
+			System.arraycopy(ids, 0, newIds, 0, idx);
+			System.arraycopy(expressions, 0, newExpressions, 0, idx);
+			newIds[idx] = id;
+			newExpressions[idx] = expression;
+			System.arraycopy(ids, idx, newIds, idx + 1, length - idx);
+			System.arraycopy(expressions, idx, newExpressions, idx + 1, length - idx);
+			return new Stripe(newIds, newExpressions);
+		}
+
+		Stripe delete(int idx) {
+			int length = ids.length;
+			if (length == 1) {
+				return EMPTY;
+			}
+			long[] newIds = new long[length - 1];
+			CronExpression[] newExpressions = new CronExpression[length - 1];
+			System.arraycopy(ids, 0, newIds, 0, idx);
+			System.arraycopy(expressions, 0, newExpressions, 0, idx);
+			System.arraycopy(ids, idx + 1, newIds, idx, length - idx - 1);
+			System.arraycopy(expressions, idx + 1, newExpressions, idx, length - idx - 1);
+			return new Stripe(newIds, newExpressions);
+		}
+	}
+}
@@ -0,0 +1,399 @@
+package com.vjy.deliveroo.cron;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.ZoneId;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs registered jobs at the execution times of their expressions.
+ * <P>
+ * Jobs are kept in a hierarchical timing wheel keyed by the minute of their next execution. The minute wheel holds
+ * the jobs due in the current hour, the hour wheel those due within the next 24 hours and the day wheel those due
+ * within the next 512 days, later jobs wait in an overflow list. Each slot is a doubly linked list so scheduling
+ * and cancelling a job are O(1). When a new hour or day starts, its slot is cascaded down to the finer wheel, so
+ * every tick only touches the jobs due in that minute.
+ * <P>
+ * After a job fires its next execution is computed and the job is placed back into the wheel. Tasks run on the
+ * given {@link Executor}, a firing rejected by the executor is skipped. Without an executor each run gets its own
+ * virtual thread, see {@link #newVirtualThreadExecutor()}. Overlapping runs of a job are limited per job with a
+ * {@link ConcurrencyPolicy}.
+ * <P>
+ * Thread safe, jobs may be scheduled and cancelled from any thread.
+ */
+public final class CronScheduler implements AutoCloseable {
+
+	private static final long MILLIS_PER_MINUTE = CronCalendar.SECONDS_PER_MINUTE * 1000L;
+	private static final int MINUTES_PER_HOUR = 60;
+	private static final int HOURS_PER_DAY = 24;
+	private static final int DAY_SLOTS = 512;
+	private static final int PLATFORM_THREADS = 256;
+
+	private static final int MINUTE_LEVEL = 0;
+	private static final int HOUR_LEVEL = 1;
+	private static final int DAY_LEVEL = 2;
+	private static final int OVERFLOW_LEVEL = 3;
+
+	private final ZoneId zone;
+	private final Executor executor;
+	// slot list heads per level, the overflow level has a single slot
+	private final ScheduledJob[][] wheels = { new ScheduledJob[MINUTES_PER_HOUR], new ScheduledJob[HOURS_PER_DAY],
+			new ScheduledJob[DAY_SLOTS], new ScheduledJob[1] };
+
+	// guarded by this
+	private long currentMinute;
+	private int size;
+	private Thread ticker;
+
+	private volatile boolean running;
+
+	/**
+	 * Scheduler running each task on its own virtual thread.
+	 *
+	 * @param zone time zone in which expressions are evaluated
+	 */
+	public CronScheduler(ZoneId zone) {
+		this(zone, newVirtualThreadExecutor());
+	}
+
+	/**
+	 * @param zone     time zone in which expressions are evaluated
+	 * @param executor runs the tasks of the jobs
+	 */
+	public CronScheduler(ZoneId zone, Executor executor) {
+		this(zone, executor, Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_MINUTE));
+	}
+
+	/**
+	 * @param epochMinute last minute considered processed, jobs fire from the minute after
+	 */
+	CronScheduler(ZoneId zone, Executor executor, long epochMinute) {
+		this.zone = zone;
+		this.executor = executor;
+		this.currentMinute = epochMinute;
+	}
+
+	/**
+	 * Schedule the command of the expression, it is started as a process.
+	 *
+	 * @param expression
+	 * @return handle of the job
+	 */
+	public ScheduledJob schedule(CronExpression expression) {
+		return schedule(expression, command(expression.getCommand()));
+	}
+
+	/**
+	 * Schedule a task at the execution times of expression in the zone of this scheduler.
+	 *
+	 * @param expression
+	 * @param task
+	 * @return handle of the job
+	 */
+	public ScheduledJob schedule(CronExpression expression, Runnable task) {
+		return schedule(expression.inZone(zone), task);
+	}
+
+	/**
+	 * Schedule a task at the execution times of an expression bound to its own zone.
+	 *
+	 * @param expression
+	 * @param task
+	 * @return handle of the job, not active if the expression never fires
+	 */
+	public ScheduledJob schedule(ZonedCronExpression expression, Runnable task) {
+		return schedule(expression, task, ConcurrencyPolicy.CONCURRENT, 1);
+	}
+
+	/**
+	 * Schedule a task whose runs may not overlap, firings while it runs are handled by policy.
+	 *
+	 * @param expression
+	 * @param task
+	 * @param policy
+	 * @return handle of the job
+	 */
+	public ScheduledJob schedule(CronExpression expression, Runnable task, ConcurrencyPolicy policy) {
+		return schedule(expression.inZone(zone), task, policy, 1);
+	}
+
+	/**
+	 * Schedule a task with at most limit runs at the same time, other firings are handled by policy.
+	 *
+	 * @param expression
+	 * @param task
+	 * @param policy
+	 * @param limit      maximum number of runs at the same time, not applied to {@link ConcurrencyPolicy#CONCURRENT}
+	 * @return handle of the job, not active if the expression never fires
+	 */
+	public ScheduledJob schedule(ZonedCronExpression expression, Runnable task, ConcurrencyPolicy policy, int limit) {
+		if (task == null || policy == null) {
+			throw new IllegalArgumentException("Task and policy must not be null");
+		}
+		if (limit < 1) {
+			throw new IllegalArgumentException(String.format("Invalid concurrency limit [%s], must be >= 1", limit));
+		}
+		if (!expression.getExpression().isMinuteResolution()) {
+			throw new IllegalArgumentException(
+					String.format("Unsupported schedule [%s], jobs fire at the start of a minute", expression));
+		}
+		ScheduledJob job = new ScheduledJob(this, expression, task, policy, limit);
+		synchronized (this) {
+			job.nextExecution = expression.nextExecution((currentMinute + 1) * MILLIS_PER_MINUTE - 1);
+			if (job.nextExecution == CronExpression.NO_EXECUTION) {
+				job.state = ScheduledJob.DONE;
+			} else {
+				size++;
+				place(job, currentMinute + 1);
+			}
+		}
+		return job;
+	}
+
+	synchronized boolean cancel(ScheduledJob job) {
+		if (job.state != ScheduledJob.ACTIVE) {
+			return false;
+		}
+		job.state = ScheduledJob.CANCELLED;
+		// jobs being fired are not linked, they are dropped when placed back
+		if (job.level >= 0) {
+			unlink(job);
+		}
+		size--;
+		return true;
+	}
+
+	/**
+	 * @return number of active jobs
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Start a daemon thread firing the jobs due at each minute of the system clock.
+	 */
+	public synchronized void start() {
+		if (ticker != null) {
+			throw new IllegalStateException("Scheduler already started");
+		}
+		running = true;
+		ticker = new Thread(this::tick, "cron-scheduler");
+		ticker.setDaemon(true);
+		ticker.start();
+	}
+
+	/**
+	 * Stop the ticking thread, running tasks and the executor are not affected.
+	 */
+	@Override
+	public synchronized void close() {
+		running = false;
+		if (ticker != null) {
+			ticker.interrupt();
+		}
+	}
+
+	private void tick() {
+		while (running) {
+			advanceTo(Math.floorDiv(System.currentTimeMillis(), MILLIS_PER_MINUTE));
+			long now = System.currentTimeMillis();
+			long wait = (Math.floorDiv(now, MILLIS_PER_MINUTE) + 1) * MILLIS_PER_MINUTE - now;
+			try {
+				Thread.sleep(wait);
+			} catch (InterruptedException e) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Fire the jobs due in each minute after the last processed minute up to and including given minute, a minute
+	 * missed by the ticking thread is caught up. Only one thread advances the scheduler.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 */
+	void advanceTo(long epochMinute) {
+		while (true) {
+			ScheduledJob due;
+			synchronized (this) {
+				if (currentMinute >= epochMinute) {
+					return;
+				}
+				long minute = ++currentMinute;
+				cascade(minute);
+				due = take(MINUTE_LEVEL, Math.floorMod(minute, MINUTES_PER_HOUR));
+			}
+			if (due != null) {
+				fire(due);
+			}
+		}
+	}
+
+	private void fire(ScheduledJob due) {
+		for (ScheduledJob job = due; job != null; job = job.next) {
+			if (job.state == ScheduledJob.ACTIVE) {
+				try {
+					job.dispatch(executor);
+				} catch (RejectedExecutionException e) {
+					// skip this firing, the job stays scheduled
+				}
+				job.nextExecution = job.getExpression().nextExecution(job.nextExecution);
+			}
+		}
+		synchronized (this) {
+			ScheduledJob job = due;
+			while (job != null) {
+				ScheduledJob next = job.next;
+				job.next = null;
+				if (job.state == ScheduledJob.ACTIVE) {
+					if (job.nextExecution == CronExpression.NO_EXECUTION) {
+						job.state = ScheduledJob.DONE;
+						size--;
+					} else {
+						place(job, currentMinute + 1);
+					}
+				}
+				job = next;
+			}
+		}
+	}
+
+	/**
+	 * Move the slots starting at minute down to the finer wheels.
+	 */
+	private void cascade(long minute) {
+		if (Math.floorMod(minute, CronCalendar.MINUTES_PER_DAY) == 0) {
+			long day = Math.floorDiv(minute, CronCalendar.MINUTES_PER_DAY);
+			int daySlot = Math.floorMod(day, DAY_SLOTS);
+			if (daySlot == 0) {
+				placeAll(take(OVERFLOW_LEVEL, 0), minute);
+			}
+			placeAll(take(DAY_LEVEL, daySlot), minute);
+		}
+		if (Math.floorMod(minute, MINUTES_PER_HOUR) == 0) {
+			long hour = Math.floorDiv(minute, MINUTES_PER_HOUR);
+			placeAll(take(HOUR_LEVEL, Math.floorMod(hour, HOURS_PER_DAY)), minute);
+		}
+	}
+
+	private void placeAll(ScheduledJob jobs, long earliestMinute) {
+		ScheduledJob job = jobs;
+		while (job != null) {
+			ScheduledJob next = job.next;
+			place(job, earliestMinute);
+			job = next;
+		}
+	}
+
+	/**
+	 * Link job into the slot of its next execution relative to the current minute.
+	 * 
+	 * @param earliestMinute an execution before this minute, already processed, fires with this minute
+	 */
+	private void place(ScheduledJob job, long earliestMinute) {
+		long minute = Math.max(Math.floorDiv(job.nextExecution, MILLIS_PER_MINUTE), earliestMinute);
+		long hours = Math.floorDiv(minute, MINUTES_PER_HOUR) - Math.floorDiv(currentMinute, MINUTES_PER_HOUR);
+		long day = Math.floorDiv(minute, CronCalendar.MINUTES_PER_DAY);
+		if (hours == 0) {
+			link(job, MINUTE_LEVEL, Math.floorMod(minute, MINUTES_PER_HOUR));
+		} else if (hours < HOURS_PER_DAY) {
+			link(job, HOUR_LEVEL, Math.floorMod(Math.floorDiv(minute, MINUTES_PER_HOUR), HOURS_PER_DAY));
+		} else if (day - Math.floorDiv(currentMinute, CronCalendar.MINUTES_PER_DAY) < DAY_SLOTS) {
+			link(job, DAY_LEVEL, Math.floorMod(day, DAY_SLOTS));
+		} else {
+			link(job, OVERFLOW_LEVEL, 0);
+		}
+	}
+
+	private void link(ScheduledJob job, int level, int slot) {
+		ScheduledJob head = wheels[level][slot];
+		job.level = level;
+		job.slot = slot;
+		job.prev = null;
+		job.next = head;
+		if (head != null) {
+			head.prev = job;
+		}
+		wheels[level][slot] = job;
+	}
+
+	private void unlink(ScheduledJob job) {
+		if (job.prev != null) {
+			job.prev.next = job.next;
+		} else {
+			wheels[job.level][job.slot] = job.next;
+		}
+		if (job.next != null) {
+			job.next.prev = job.prev;
+		}
+		job.level = -1;
+		job.prev = null;
+		job.next = null;
+	}
+
+	/**
+	 * Detach the list of a slot, its jobs are no longer linked.
+	 *
+	 * @return first job of the list or null
+	 */
+	private ScheduledJob take(int level, int slot) {
+		ScheduledJob head = wheels[level][slot];
+		wheels[level][slot] = null;
+		for (ScheduledJob job = head; job != null; job = job.next) {
+			job.level = -1;
+			job.prev = null;
+		}
+		return head;
+	}
+
+	/**
+	 * Executor starting a new virtual thread for every task. On runtimes without virtual threads, before Java 21,
+	 * this falls back to a pool of 256 daemon platform threads.
+	 *
+	 * @return executor, shut it down when no longer used
+	 */
+	public static ExecutorService newVirtualThreadExecutor() {
+		try {
+			return (ExecutorService) MethodHandles.publicLookup()
+					.findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+							MethodType.methodType(ExecutorService.class))
+					.invoke();
+		} catch (NoSuchMethodException | IllegalAccessException e) {
+			AtomicInteger threads = new AtomicInteger();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS, 60, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), task -> {
+						Thread thread = new Thread(task, "cron-job-" + threads.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			return pool;
+		} catch (Throwable e) {
+			throw new IllegalStateException("Cannot create virtual thread executor", e);
+		}
+	}
+
+	private static Runnable command(String cmd) {
+		return () -> {
+			try {
+				new ProcessBuilder(cmd.trim().split("\\s+")).inheritIO().start();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		};
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+}
@@ -0,0 +1,303 @@
+package com.vjy.deliveroo.cron;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+/**
+ * Compiled expressions in a compact binary encoding, read in place from a {@link ByteBuffer} without creating an
+ * object per expression.
+ * <P>
+ * Layout, big endian:
+ *
+ * <pre>
+ * header  := magic:int32 ('CRON') version:int16 reserved:int16 count:int32
+ * record  := minutes:int64 hours:int32 daysOfMonth:int32 months:int16 daysOfWeek:int8 reserved:int8
+ *            commandOffset:int32 commandLength:int32
+ * file    := header record{count} command bytes, UTF-8
+ * </pre>
+ *
+ * Each mask has bit n set when value n is part of the field, see
+ * {@link com.vjy.deliveroo.cron.fields.SimpleField#getBits()}. Bit 0 of the day of week mask, which is no day, is set
+ * when the day fields match if either of them matches. The command offset is relative to the start of the
+ * snapshot.
+ * <P>
+ * Immutable, the buffer must not be modified while the snapshot is in use.
+ */
+public final class CronSnapshot {
+
+	static final int MAGIC = 0x43524F4E;
+	static final short VERSION = 2;
+	static final int HEADER_SIZE = 12;
+	static final int RECORD_SIZE = 28;
+
+	private static final int HOURS = 8;
+	private static final int DAYS_OF_MONTH = 12;
+	private static final int MONTHS = 16;
+	private static final int DAYS_OF_WEEK = 18;
+	private static final int COMMAND_OFFSET = 20;
+	private static final int COMMAND_LENGTH = 24;
+
+	private final ByteBuffer buffer;
+	private final int size;
+
+	private CronSnapshot(ByteBuffer buffer, int size) {
+		this.buffer = buffer;
+		this.size = size;
+	}
+
+	/**
+	 * Read snapshot in place, from position to limit of buffer.
+	 *
+	 * @param buffer
+	 * @return snapshot sharing the content of buffer
+	 * @throws IllegalArgumentException if the buffer does not hold a snapshot of a supported version
+	 */
+	public static CronSnapshot wrap(ByteBuffer buffer) {
+		ByteBuffer data = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+		if (data.limit() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+			throw new IllegalArgumentException("Invalid cron snapshot, missing header");
+		}
+		short version = data.getShort(4);
+		if (version != VERSION) {
+			throw new IllegalArgumentException(
+					String.format("Unsupported cron snapshot version [%s], must be [%s]", version, VERSION));
+		}
+		int size = data.getInt(8);
+		if (size < 0 || (long) HEADER_SIZE + (long) size * RECORD_SIZE > data.limit()) {
+			throw new IllegalArgumentException(String.format("Invalid cron snapshot, truncated at %s records", size));
+		}
+		return new CronSnapshot(data, size);
+	}
+
+	/**
+	 * Map snapshot file into memory.
+	 *
+	 * @param file
+	 * @return snapshot reading the mapped file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CronSnapshot map(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			return wrap(channel.map(MapMode.READ_ONLY, 0, channel.size()));
+		}
+	}
+
+	/**
+	 * Encode expressions into a new snapshot.
+	 *
+	 * @param expressions
+	 * @return heap buffer from position 0 to the end of the snapshot
+	 * @throws IllegalArgumentException if an expression has seconds, a year or L, W or # days
+	 */
+	public static ByteBuffer encode(Collection<CronExpression> expressions) {
+		byte[][] commands = new byte[expressions.size()][];
+		long length = HEADER_SIZE + (long) expressions.size() * RECORD_SIZE;
+		int i = 0;
+		for (CronExpression expression : expressions) {
+			CronExpression.requireStatic(expression);
+			commands[i] = expression.getCommand().getBytes(StandardCharsets.UTF_8);
+			length += commands[i++].length;
+		}
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cron snapshot larger than 2 GB");
+		}
+
+		ByteBuffer buffer = ByteBuffer.allocate((int) length);
+		buffer.putInt(MAGIC).putShort(VERSION).putShort((short) 0).putInt(expressions.size());
+		int commandOffset = HEADER_SIZE + expressions.size() * RECORD_SIZE;
+		i = 0;
+		for (CronExpression expression : expressions) {
+			buffer.putLong(expression.getMinuteField().getBits());
+			buffer.putInt((int) expression.getHourField().getBits());
+			buffer.putInt((int) expression.getDayOfMonthField().getBits());
+			buffer.putShort((short) expression.getMonthField().getBits());
+			buffer.put((byte) expression.getDaysOfWeekMask());
+			buffer.put((byte) 0);
+			buffer.putInt(commandOffset);
+			buffer.putInt(commands[i].length);
+			commandOffset += commands[i++].length;
+		}
+		for (byte[] command : commands) {
+			buffer.put(command);
+		}
+		buffer.flip();
+		return buffer;
+	}
+
+	/**
+	 * Encode expressions into a snapshot file, replacing an existing file.
+	 *
+	 * @param expressions
+	 * @param file
+	 * @throws IOException if the file cannot be written
+	 */
+	public static void write(Collection<CronExpression> expressions, Path file) throws IOException {
+		ByteBuffer buffer = encode(expressions);
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * @return number of expressions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Compiled field of an expression.
+	 *
+	 * @param index
+	 * @param type
+	 * @return bit mask, bit n is set when value n is part of the field
+	 * @throws IllegalArgumentException for second and year, which are not stored
+	 */
+	public long getBits(int index, FieldType type) {
+		int record = record(index);
+		switch (type) {
+		case MINUTE:
+			return buffer.getLong(record);
+		case HOUR:
+			return buffer.getInt(record + HOURS) & 0xFFFFFFFFL;
+		case DAY_OF_MONTH:
+			return buffer.getInt(record + DAYS_OF_MONTH) & 0xFFFFFFFFL;
+		case MONTH:
+			return buffer.getShort(record + MONTHS) & 0xFFFFL;
+		case DAY_OF_WEEK:
+			return buffer.get(record + DAYS_OF_WEEK) & 0xFEL;
+		default:
+			throw new IllegalArgumentException(String.format("Field [%s] is not stored", type));
+		}
+	}
+
+	/**
+	 * @param index
+	 * @return command of the expression, decoded on each call
+	 * @throws IllegalArgumentException if the command is not within the command bytes of the snapshot
+	 */
+	public String getCommand(int index) {
+		int record = record(index);
+		int offset = buffer.getInt(record + COMMAND_OFFSET);
+		int length = buffer.getInt(record + COMMAND_LENGTH);
+		if (offset < HEADER_SIZE + size * RECORD_SIZE || length < 0 || (long) offset + length > buffer.limit()) {
+			throw new IllegalArgumentException(String.format(
+					"Invalid cron snapshot, command [%s+%s] of record %s out of bounds", offset, length, index));
+		}
+		byte[] command = new byte[length];
+		ByteBuffer region = buffer.duplicate();
+		region.position(offset);
+		region.get(command);
+		return new String(command, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Create an expression equivalent to a record, the fields are written as value lists and ranges so the text may
+	 * differ from the encoded expression.
+	 *
+	 * @param index
+	 * @return new expression
+	 */
+	public CronExpression get(int index) {
+		long[] bits = new long[CronExpression.UNIX_FIELDS.length];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = getBits(index, CronExpression.UNIX_FIELDS[i]);
+		}
+		bits[bits.length - 1] |= buffer.get(record(index) + DAYS_OF_WEEK) & CronExpression.DAYS_UNION;
+		return CronExpression.fromBits(bits, getCommand(index));
+	}
+
+	/**
+	 * Check if expression matches the local date and time.
+	 *
+	 * @param index
+	 * @param minute
+	 * @param hour
+	 * @param dayOfMonth
+	 * @param month
+	 * @param dayOfWeek  1 (Monday) to 7 (Sunday)
+	 * @return true when all fields match, for a union of the day fields either day field
+	 */
+	public boolean matches(int index, int minute, int hour, int dayOfMonth, int month, int dayOfWeek) {
+		int record = record(index);
+		if ((buffer.getLong(record) & (1L << minute)) == 0 || (buffer.getInt(record + HOURS) & (1 << hour)) == 0
+				|| (buffer.getShort(record + MONTHS) & (1 << month)) == 0) {
+			return false;
+		}
+		int daysOfWeek = buffer.get(record + DAYS_OF_WEEK);
+		boolean dayOfMonthMatch = (buffer.getInt(record + DAYS_OF_MONTH) & (1 << dayOfMonth)) != 0;
+		boolean dayOfWeekMatch = (daysOfWeek & (1 << dayOfWeek)) != 0;
+		return (daysOfWeek & CronExpression.DAYS_UNION) != 0 ? dayOfMonthMatch || dayOfWeekMatch
+				: dayOfMonthMatch && dayOfWeekMatch;
+	}
+
+	/**
+	 * Pass index of every expression firing at given minute to action, in ascending order. Daylight saving time
+	 * transitions are handled like {@link CronExpression#nextExecution(long, ZoneId)}, local times skipped by a gap
+	 * fire shifted by its length and repeated local times fire once.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @param zone        time zone in which the fields are evaluated
+	 * @param action
+	 */
+	public void forEachFiringAt(long epochMinute, ZoneId zone, IntConsumer action) {
+		ZoneTimeline timeline = ZoneTimeline.of(zone);
+		long localMinute = timeline.localMinute(epochMinute, OverlapPolicy.FIRE_ONCE);
+		long gapMinute = timeline.gapMinute(epochMinute);
+		CronMetrics metrics = Instrumentation.metrics;
+		long start = metrics == CronMetrics.NOOP ? 0L : System.nanoTime();
+		if (gapMinute == ZoneTimeline.NO_LOCAL_MINUTE) {
+			if (localMinute != ZoneTimeline.NO_LOCAL_MINUTE) {
+				forEachMatching(localMinute, action);
+			}
+		} else {
+			// within a gap the wall clock minute and the skipped minute fire, report each index once
+			BitSet indexes = new BitSet();
+			forEachMatching(localMinute, indexes::set);
+			forEachMatching(gapMinute, indexes::set);
+			indexes.stream().forEach(action);
+		}
+		if (metrics != CronMetrics.NOOP) {
+			metrics.record(CronMetrics.Operation.MATCH, null, System.nanoTime() - start);
+		}
+	}
+
+	private void forEachMatching(long localMinute, IntConsumer action) {
+		long epochDay = Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int date = CronCalendar.toDate(epochDay);
+
+		int minute = minuteOfDay % CronCalendar.MINUTES_PER_HOUR;
+		int hour = minuteOfDay / CronCalendar.MINUTES_PER_HOUR;
+		int dayOfMonth = CronCalendar.day(date);
+		int month = CronCalendar.month(date);
+		int dayOfWeek = CronCalendar.dayOfWeek(epochDay);
+		for (int i = 0; i < size; i++) {
+			if (matches(i, minute, hour, dayOfMonth, month, dayOfWeek)) {
+				action.accept(i);
+			}
+		}
+	}
+
+	private int record(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds for " + size + " expressions");
+		}
+		return HEADER_SIZE + index * RECORD_SIZE;
+	}
+}
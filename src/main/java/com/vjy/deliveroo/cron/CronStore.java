@@ -0,0 +1,373 @@
+package com.vjy.deliveroo.cron;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+/**
+ * Off-heap store of compiled expressions.
+ * <P>
+ * Each field is a column of bit masks in a direct buffer, indexed by schedule id, and the commands are UTF-8 bytes
+ * in another direct buffer. A schedule takes 27 bytes plus its command outside the heap and no objects on it, the
+ * expression is only created again by {@link #get(int)}. Finding the schedules matching a minute scans the columns
+ * in blocks of 64 ids with a branch free loop.
+ * <P>
+ * Bit 0 of the day of week column, which is no day, is set when the day fields match if either of them matches.
+ * <P>
+ * Ids are dense and reused after {@link #remove(int)}, a removed schedule has empty masks so it never matches. The
+ * store is not thread safe.
+ */
+public final class CronStore {
+
+	private static final int MINIMUM_CAPACITY = 64;
+
+	private final ZoneTimeline timeline;
+
+	// one element per id
+	private ByteBuffer minutes;
+	private ByteBuffer hours;
+	private ByteBuffer daysOfMonth;
+	private ByteBuffer months;
+	private ByteBuffer daysOfWeek;
+	private ByteBuffer commandOffsets;
+	private ByteBuffer commandLengths;
+	private int capacity;
+	// ids of the stored expressions, masks may all be empty
+	private final BitSet live = new BitSet();
+
+	private ByteBuffer commands;
+	private int commandsEnd;
+	// bytes of removed commands, reclaimed by compacting
+	private int commandsGarbage;
+
+	private int[] freeIds = new int[16];
+	private int freeCount;
+	private int nextId;
+	private int size;
+
+	/**
+	 * @param zone time zone in which the fields are evaluated
+	 */
+	public CronStore(ZoneId zone) {
+		this(zone, MINIMUM_CAPACITY);
+	}
+
+	/**
+	 * @param zone     time zone in which the fields are evaluated
+	 * @param capacity number of schedules to allocate space for
+	 */
+	public CronStore(ZoneId zone, int capacity) {
+		this.timeline = ZoneTimeline.of(zone);
+		this.capacity = Math.max(capacity, MINIMUM_CAPACITY);
+		minutes = allocate(this.capacity * Long.BYTES);
+		hours = allocate(this.capacity * Integer.BYTES);
+		daysOfMonth = allocate(this.capacity * Integer.BYTES);
+		months = allocate(this.capacity * Short.BYTES);
+		daysOfWeek = allocate(this.capacity);
+		commandOffsets = allocate(this.capacity * Integer.BYTES);
+		commandLengths = allocate(this.capacity * Integer.BYTES);
+		commands = allocate(this.capacity * 16);
+	}
+
+	private static ByteBuffer allocate(int bytes) {
+		return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+	}
+
+	private static ByteBuffer grow(ByteBuffer column, int bytes) {
+		ByteBuffer grown = allocate(bytes);
+		ByteBuffer content = column.duplicate();
+		content.clear();
+		grown.put(content);
+		grown.clear();
+		return grown;
+	}
+
+	/**
+	 * Add expression to the store, only its compiled fields and command are kept.
+	 *
+	 * @param exp
+	 * @return id of the expression
+	 * @throws IllegalArgumentException if the expression has seconds, a year or L, W or # days
+	 */
+	public int add(CronExpression exp) {
+		CronExpression.requireStatic(exp);
+		int id = freeCount > 0 ? freeIds[--freeCount] : nextId++;
+		if (id == capacity) {
+			capacity *= 2;
+			minutes = grow(minutes, capacity * Long.BYTES);
+			hours = grow(hours, capacity * Integer.BYTES);
+			daysOfMonth = grow(daysOfMonth, capacity * Integer.BYTES);
+			months = grow(months, capacity * Short.BYTES);
+			daysOfWeek = grow(daysOfWeek, capacity);
+			commandOffsets = grow(commandOffsets, capacity * Integer.BYTES);
+			commandLengths = grow(commandLengths, capacity * Integer.BYTES);
+		}
+		putMasks(id, exp);
+		putCommand(id, exp.getCommand().getBytes(StandardCharsets.UTF_8));
+		live.set(id);
+		size++;
+		return id;
+	}
+
+	/**
+	 * Replace a stored expression in place, its command is only written again if it changed.
+	 *
+	 * @param id
+	 * @param exp
+	 * @return false if id is unknown, then nothing is stored
+	 * @throws IllegalArgumentException if the expression has seconds, a year or L, W or # days
+	 */
+	public boolean replace(int id, CronExpression exp) {
+		CronExpression.requireStatic(exp);
+		if (!contains(id)) {
+			return false;
+		}
+		putMasks(id, exp);
+		byte[] command = exp.getCommand().getBytes(StandardCharsets.UTF_8);
+		int length = commandLengths.getInt(id * Integer.BYTES);
+		ByteBuffer stored = commands.duplicate();
+		stored.position(commandOffsets.getInt(id * Integer.BYTES)).limit(stored.position() + length);
+		if (!stored.equals(ByteBuffer.wrap(command))) {
+			commandsGarbage += length;
+			// nothing left to copy if putting the command compacts the buffer
+			commandLengths.putInt(id * Integer.BYTES, 0);
+			putCommand(id, command);
+		}
+		return true;
+	}
+
+	private void putMasks(int id, CronExpression exp) {
+		minutes.putLong(id * Long.BYTES, exp.getMinuteField().getBits());
+		hours.putInt(id * Integer.BYTES, (int) exp.getHourField().getBits());
+		daysOfMonth.putInt(id * Integer.BYTES, (int) exp.getDayOfMonthField().getBits());
+		months.putShort(id * Short.BYTES, (short) exp.getMonthField().getBits());
+		daysOfWeek.put(id, (byte) exp.getDaysOfWeekMask());
+	}
+
+	private void putCommand(int id, byte[] command) {
+		if (commandsEnd + command.length > commands.capacity()) {
+			if (commandsGarbage > commandsEnd / 2) {
+				compactCommands();
+			}
+			if (commandsEnd + command.length > commands.capacity()) {
+				commands = grow(commands, Math.max(commands.capacity() * 2, commandsEnd + command.length));
+			}
+		}
+		ByteBuffer target = commands.duplicate();
+		target.position(commandsEnd);
+		target.put(command);
+		commandOffsets.putInt(id * Integer.BYTES, commandsEnd);
+		commandLengths.putInt(id * Integer.BYTES, command.length);
+		commandsEnd += command.length;
+	}
+
+	/**
+	 * Copy the commands of the stored schedules to the start of the command buffer, in id order.
+	 */
+	private void compactCommands() {
+		ByteBuffer compacted = allocate(commands.capacity());
+		for (int id = 0; id < nextId; id++) {
+			if (contains(id)) {
+				int length = commandLengths.getInt(id * Integer.BYTES);
+				ByteBuffer command = commands.duplicate();
+				command.position(commandOffsets.getInt(id * Integer.BYTES)).limit(command.position() + length);
+				commandOffsets.putInt(id * Integer.BYTES, compacted.position());
+				compacted.put(command);
+			}
+		}
+		commandsEnd = compacted.position();
+		commandsGarbage = 0;
+		compacted.clear();
+		commands = compacted;
+	}
+
+	/**
+	 * Remove expression from the store, its id may be reused by later additions.
+	 *
+	 * @param id
+	 * @return false if id is unknown
+	 */
+	public boolean remove(int id) {
+		if (!contains(id)) {
+			return false;
+		}
+		minutes.putLong(id * Long.BYTES, 0L);
+		hours.putInt(id * Integer.BYTES, 0);
+		daysOfMonth.putInt(id * Integer.BYTES, 0);
+		months.putShort(id * Short.BYTES, (short) 0);
+		daysOfWeek.put(id, (byte) 0);
+		commandsGarbage += commandLengths.getInt(id * Integer.BYTES);
+		live.clear(id);
+		if (freeCount == freeIds.length) {
+			freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+		}
+		freeIds[freeCount++] = id;
+		size--;
+		return true;
+	}
+
+	/**
+	 * @param id
+	 * @return true if an expression is stored with id
+	 */
+	public boolean contains(int id) {
+		return id >= 0 && live.get(id);
+	}
+
+	/**
+	 * Compiled field of a stored expression.
+	 *
+	 * @param id
+	 * @param type
+	 * @return bit mask, bit n is set when value n is part of the field, 0 if id is unknown
+	 * @throws IllegalArgumentException for second and year, which are not stored
+	 */
+	public long getBits(int id, FieldType type) {
+		if (!contains(id)) {
+			return 0L;
+		}
+		switch (type) {
+		case MINUTE:
+			return minutes.getLong(id * Long.BYTES);
+		case HOUR:
+			return hours.getInt(id * Integer.BYTES) & 0xFFFFFFFFL;
+		case DAY_OF_MONTH:
+			return daysOfMonth.getInt(id * Integer.BYTES) & 0xFFFFFFFFL;
+		case MONTH:
+			return months.getShort(id * Short.BYTES) & 0xFFFFL;
+		case DAY_OF_WEEK:
+			return daysOfWeek.get(id) & 0xFEL;
+		default:
+			throw new IllegalArgumentException(String.format("Field [%s] is not stored", type));
+		}
+	}
+
+	/**
+	 * @param id
+	 * @return command of the expression or null if id is unknown
+	 */
+	public String getCommand(int id) {
+		if (!contains(id)) {
+			return null;
+		}
+		byte[] command = new byte[commandLengths.getInt(id * Integer.BYTES)];
+		ByteBuffer source = commands.duplicate();
+		source.position(commandOffsets.getInt(id * Integer.BYTES));
+		source.get(command);
+		return new String(command, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Create an expression equivalent to a stored one, the fields are written as value lists and ranges so the text
+	 * may differ from the added expression.
+	 *
+	 * @param id
+	 * @return new expression or null if id is unknown
+	 */
+	public CronExpression get(int id) {
+		if (!contains(id)) {
+			return null;
+		}
+		long[] bits = new long[CronExpression.UNIX_FIELDS.length];
+		for (int i = 0; i < bits.length; i++) {
+			bits[i] = getBits(id, CronExpression.UNIX_FIELDS[i]);
+		}
+		bits[bits.length - 1] |= daysOfWeek.get(id) & CronExpression.DAYS_UNION;
+		return CronExpression.fromBits(bits, getCommand(id));
+	}
+
+	/**
+	 * @return number of stored expressions
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Pass id of every expression firing at given minute to action, in ascending order. Daylight saving time
+	 * transitions are handled like {@link CronExpression#nextExecution(long, ZoneId)}, local times skipped by a gap
+	 * fire shifted by its length and repeated local times fire once.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @param action
+	 */
+	public void forEachFiringAt(long epochMinute, IntConsumer action) {
+		long localMinute = timeline.localMinute(epochMinute, OverlapPolicy.FIRE_ONCE);
+		long gapMinute = timeline.gapMinute(epochMinute);
+		if (gapMinute == ZoneTimeline.NO_LOCAL_MINUTE) {
+			if (localMinute != ZoneTimeline.NO_LOCAL_MINUTE) {
+				forEachMatching(localMinute, action);
+			}
+			return;
+		}
+		// within a gap the wall clock minute and the skipped minute fire, report each id once
+		BitSet ids = new BitSet();
+		forEachMatching(localMinute, ids::set);
+		forEachMatching(gapMinute, ids::set);
+		ids.stream().forEach(action);
+	}
+
+	private void forEachMatching(long localMinute, IntConsumer action) {
+		long epochDay = Math.floorDiv(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int minuteOfDay = Math.floorMod(localMinute, CronCalendar.MINUTES_PER_DAY);
+		int date = CronCalendar.toDate(epochDay);
+		forEachMatching(minuteOfDay % CronCalendar.MINUTES_PER_HOUR, minuteOfDay / CronCalendar.MINUTES_PER_HOUR,
+				CronCalendar.day(date), CronCalendar.month(date), CronCalendar.dayOfWeek(epochDay), action);
+	}
+
+	/**
+	 * Pass id of every expression matching the local date and time to action, in ascending order.
+	 *
+	 * @param minute
+	 * @param hour
+	 * @param dayOfMonth
+	 * @param month
+	 * @param dayOfWeek  1 (Monday) to 7 (Sunday)
+	 * @param action
+	 */
+	public void forEachMatching(int minute, int hour, int dayOfMonth, int month, int dayOfWeek, IntConsumer action) {
+		CronMetrics metrics = Instrumentation.metrics;
+		if (metrics == CronMetrics.NOOP) {
+			matchAll(minute, hour, dayOfMonth, month, dayOfWeek, action);
+			return;
+		}
+		long start = System.nanoTime();
+		matchAll(minute, hour, dayOfMonth, month, dayOfWeek, action);
+		metrics.record(CronMetrics.Operation.MATCH, null, System.nanoTime() - start);
+	}
+
+	private void matchAll(int minute, int hour, int dayOfMonth, int month, int dayOfWeek, IntConsumer action) {
+		for (int block = 0; block < nextId; block += Long.SIZE) {
+			long matches = matchBlock(block, Math.min(block + Long.SIZE, nextId), minute, hour, dayOfMonth, month,
+					dayOfWeek);
+			while (matches != 0) {
+				action.accept(block + Long.numberOfTrailingZeros(matches));
+				matches &= matches - 1;
+			}
+		}
+	}
+
+	/**
+	 * @return bit i set when id block + i matches
+	 */
+	private long matchBlock(int block, int end, int minute, int hour, int dayOfMonth, int month, int dayOfWeek) {
+		long matches = 0L;
+		for (int id = block; id < end; id++) {
+			long dayOfMonthMatch = daysOfMonth.getInt(id * Integer.BYTES) >>> dayOfMonth;
+			int daysOfWeekMask = daysOfWeek.get(id);
+			long dayOfWeekMatch = daysOfWeekMask >>> dayOfWeek;
+			// both days or, for a union, either day
+			long dayMatch = (dayOfMonthMatch & dayOfWeekMatch) | (daysOfWeekMask & (dayOfMonthMatch | dayOfWeekMatch));
+			long match = (minutes.getLong(id * Long.BYTES) >>> minute) & (hours.getInt(id * Integer.BYTES) >>> hour)
+					& (months.getShort(id * Short.BYTES) >>> month) & dayMatch & 1L;
+			matches |= match << (id - block);
+		}
+		return matches;
+	}
+}
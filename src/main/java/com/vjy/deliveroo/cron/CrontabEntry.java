@@ -0,0 +1,53 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * Line of a crontab file read by {@link CrontabLoader}, either the parsed expression or the reason it is invalid.
+ */
+public final class CrontabEntry {
+
+	private final int lineNumber;
+	private final String line;
+	private final CronExpression expression;
+	private final String error;
+
+	CrontabEntry(int lineNumber, String line, CronExpression expression, String error) {
+		this.lineNumber = lineNumber;
+		this.line = line;
+		this.expression = expression;
+		this.error = error;
+	}
+
+	/**
+	 * @return line number in the file, starting at 1
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	public String getLine() {
+		return line;
+	}
+
+	/**
+	 * @return parsed expression or null if the line is invalid
+	 */
+	public CronExpression getExpression() {
+		return expression;
+	}
+
+	/**
+	 * @return message of the parse error or null if the line is valid
+	 */
+	public String getError() {
+		return error;
+	}
+
+	public boolean isValid() {
+		return expression != null;
+	}
+
+	@Override
+	public String toString() {
+		return lineNumber + ": " + (expression != null ? line : line + " (" + error + ")");
+	}
+}
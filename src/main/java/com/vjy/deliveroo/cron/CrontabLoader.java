@@ -0,0 +1,170 @@
+package com.vjy.deliveroo.cron;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Loader for crontab files with one expression per line.
+ * <P>
+ * The file is memory mapped and split into chunks at line boundaries, the chunks are parsed in parallel on a
+ * fork-join pool. Entries are streamed in line order as soon as their chunk is parsed, a line which is not a valid
+ * expression is reported with its line number and parse error instead of failing the whole file. Blank lines and
+ * comment lines, starting with <code>#</code>, are skipped.
+ */
+public final class CrontabLoader {
+
+	private static final int CHUNK_SIZE = 256 * 1024;
+
+	private CrontabLoader() {
+	}
+
+	/**
+	 * Load crontab file, parsing on the common fork-join pool.
+	 *
+	 * @param file UTF-8 encoded crontab
+	 * @return entries in line order
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Stream<CrontabEntry> load(Path file) throws IOException {
+		return load(file, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Load crontab file, parsing on given pool. Parsing starts immediately, closing the stream cancels the chunks
+	 * not parsed yet.
+	 *
+	 * @param file UTF-8 encoded crontab
+	 * @param pool
+	 * @return entries in line order
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Stream<CrontabEntry> load(Path file, ForkJoinPool pool) throws IOException {
+		ByteBuffer data;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException(String.format("Crontab file [%s] is larger than 2 GB", file));
+			}
+			data = channel.map(MapMode.READ_ONLY, 0, size);
+		}
+
+		List<ForkJoinTask<Chunk>> tasks = new ArrayList<>();
+		int limit = data.limit();
+		int start = 0;
+		while (start < limit) {
+			int end = Math.min(start + CHUNK_SIZE, limit);
+			while (end < limit && data.get(end - 1) != '\n') {
+				end++;
+			}
+			ByteBuffer region = data.duplicate();
+			region.limit(end).position(start);
+			tasks.add(pool.submit(() -> parse(region)));
+			start = end;
+		}
+
+		Spliterator<CrontabEntry> entries = new Spliterators.AbstractSpliterator<CrontabEntry>(Long.MAX_VALUE,
+				Spliterator.ORDERED | Spliterator.NONNULL) {
+			private int task;
+			private Chunk chunk;
+			private int entry;
+			private int lineOffset;
+
+			@Override
+			public boolean tryAdvance(Consumer<? super CrontabEntry> action) {
+				while (chunk == null || entry == chunk.size) {
+					if (task == tasks.size()) {
+						return false;
+					}
+					if (chunk != null) {
+						lineOffset += chunk.lines;
+					}
+					chunk = tasks.get(task++).join();
+					entry = 0;
+				}
+				action.accept(chunk.entry(entry++, lineOffset));
+				return true;
+			}
+		};
+		return StreamSupport.stream(entries, false).onClose(() -> tasks.forEach(t -> t.cancel(false)));
+	}
+
+	/**
+	 * Parse the lines of a chunk, line numbers are relative to the chunk.
+	 */
+	private static Chunk parse(ByteBuffer region) {
+		byte[] bytes = new byte[region.remaining()];
+		region.get(bytes);
+
+		Chunk chunk = new Chunk();
+		int lineStart = 0;
+		while (lineStart < bytes.length) {
+			int lineEnd = lineStart;
+			while (lineEnd < bytes.length && bytes[lineEnd] != '\n') {
+				lineEnd++;
+			}
+			chunk.lines++;
+			int end = lineEnd > lineStart && bytes[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+			int first = lineStart;
+			while (first < end && (bytes[first] == ' ' || bytes[first] == '\t')) {
+				first++;
+			}
+			if (first < end && bytes[first] != '#') {
+				String line = new String(bytes, lineStart, end - lineStart, StandardCharsets.UTF_8);
+				try {
+					chunk.add(chunk.lines, line, new CronExpression(line.trim()), null);
+				} catch (IllegalArgumentException e) {
+					chunk.add(chunk.lines, line, null, e.getMessage());
+				}
+			}
+			lineStart = lineEnd + 1;
+		}
+		return chunk;
+	}
+
+	/**
+	 * Parsed lines of a chunk, kept in parallel arrays until the line offset of the chunk is known.
+	 */
+	private static final class Chunk {
+
+		private int lines;
+		private int size;
+		private int[] lineNumbers = new int[64];
+		private String[] texts = new String[64];
+		private CronExpression[] expressions = new CronExpression[64];
+		private String[] errors = new String[64];
+
+		private void add(int lineNumber, String text, CronExpression expression, String error) {
+			if (size == lineNumbers.length) {
+				int capacity = size * 2;
+				lineNumbers = Arrays.copyOf(lineNumbers, capacity);
+				texts = Arrays.copyOf(texts, capacity);
+				expressions = Arrays.copyOf(expressions, capacity);
+				errors = Arrays.copyOf(errors, capacity);
+			}
+			lineNumbers[size] = lineNumber;
+			texts[size] = text;
+			expressions[size] = expression;
+			errors[size] = error;
+			size++;
+		}
+
+		private CrontabEntry entry(int index, int lineOffset) {
+			return new CrontabEntry(lineOffset + lineNumbers[index], texts[index], expressions[index], errors[index]);
+		}
+	}
+}
@@ -0,0 +1,158 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.vjy.deliveroo.cron.fields.BaseField;
+import com.vjy.deliveroo.cron.fields.DayOfMonthField;
+import com.vjy.deliveroo.cron.fields.DayOfWeekField;
+import com.vjy.deliveroo.cron.fields.FieldType;
+import com.vjy.deliveroo.cron.fields.SimpleField;
+import com.vjy.deliveroo.cron.fields.YearField;
+
+/**
+ * Bounded concurrent cache of compiled fields keyed by field type and text, shared by all expressions, see
+ * {@link CronExpression#fieldCache()}.
+ * <P>
+ * Fields are immutable, so expressions with the same field text, like <code>*</code>, <code>*&#47;5</code> or
+ * <code>MON-FRI</code>, share one instance and a cached field costs a hash lookup instead of parsing and compiling.
+ * Lookups are lock free. When the cache grows beyond its maximum size the oldest fields are evicted first, like
+ * {@link CronExpressionCache}.
+ */
+public final class FieldCache {
+
+	public static final int DEFAULT_MAXIMUM_SIZE = 10_000;
+
+	private final int maximumSize;
+	private final Map<FieldType, ConcurrentHashMap<String, BaseField>> fields = new EnumMap<>(FieldType.class);
+	private final Queue<Key> insertionOrder = new ConcurrentLinkedQueue<>();
+	// cached fields, only changed with the insertion order so it is not summed over the maps
+	private final AtomicInteger size = new AtomicInteger();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * Cached field in insertion order.
+	 */
+	private static final class Key {
+		final FieldType type;
+		final String text;
+
+		Key(FieldType type, String text) {
+			this.type = type;
+			this.text = text;
+		}
+	}
+
+	FieldCache(int maximumSize) {
+		if (maximumSize < 0) {
+			throw new IllegalArgumentException("Invalid maximum size [" + maximumSize + "], must not be negative");
+		}
+		this.maximumSize = maximumSize;
+		// filled once, the map is only read afterwards
+		for (FieldType type : FieldType.values()) {
+			fields.put(type, new ConcurrentHashMap<>());
+		}
+	}
+
+	/**
+	 * Compiled field of a region of an expression, the field class follows from the type.
+	 *
+	 * @throws IllegalArgumentException if the region is not a valid field of type
+	 */
+	@SuppressWarnings("unchecked")
+	<F extends BaseField> F get(FieldType type, String exp, int start, int end) {
+		String text = exp.substring(start, end);
+		ConcurrentHashMap<String, BaseField> cached = fields.get(type);
+		BaseField field = cached.get(text);
+		if (field != null) {
+			hits.increment();
+			return (F) field;
+		}
+		misses.increment();
+		field = compile(type, text);
+		if (maximumSize == 0) {
+			return (F) field;
+		}
+		BaseField previous = cached.putIfAbsent(text, field);
+		if (previous != null) {
+			return (F) previous;
+		}
+		insertionOrder.add(new Key(type, text));
+		if (size.incrementAndGet() > maximumSize) {
+			evict();
+		}
+		return (F) field;
+	}
+
+	private void evict() {
+		while (size.get() > maximumSize) {
+			if (!removeEldest()) {
+				return;
+			}
+			evictions.increment();
+		}
+	}
+
+	/**
+	 * @return false if there is no cached field
+	 */
+	private boolean removeEldest() {
+		Key eldest;
+		while ((eldest = insertionOrder.poll()) != null) {
+			if (fields.get(eldest.type).remove(eldest.text) != null) {
+				size.decrementAndGet();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static BaseField compile(FieldType type, String text) {
+		switch (type) {
+		case DAY_OF_MONTH:
+			return new DayOfMonthField(type, text);
+		case DAY_OF_WEEK:
+			return new DayOfWeekField(type, text);
+		case YEAR:
+			return new YearField(type, text);
+		default:
+			return new SimpleField(type, text);
+		}
+	}
+
+	/**
+	 * Remove all cached fields, counters are not reset.
+	 */
+	public void clear() {
+		while (removeEldest()) {
+			// fields are removed through the insertion order to keep the size
+		}
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+}
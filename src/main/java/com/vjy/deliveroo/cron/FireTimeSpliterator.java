@@ -0,0 +1,99 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Lazily computes fire times of an expression within the window (start, end], each call to
+ * {@link #tryAdvance(Consumer)} computes the next execution only.
+ * <P>
+ * Bounded windows split in half by time. Unbounded windows split off a prefix window which doubles with every
+ * split, starting at one day.
+ */
+final class FireTimeSpliterator implements Spliterator<Instant> {
+
+	static final long UNBOUNDED = Long.MAX_VALUE;
+
+	private static final long MILLIS_PER_SECOND = 1_000L;
+	private static final long MILLIS_PER_MINUTE = 60_000L;
+	// smaller windows are not worth splitting
+	private static final long MIN_SPLIT_WINDOW = 60 * MILLIS_PER_MINUTE;
+	private static final long INITIAL_PREFIX_WINDOW = 24 * 60 * MILLIS_PER_MINUTE;
+
+	private final ZonedCronExpression expression;
+	private final long end;
+	// fire times are whole multiples of the resolution, a minute unless the expression has seconds
+	private final long resolution;
+	private long current;
+	private long prefixWindow = INITIAL_PREFIX_WINDOW;
+
+	/**
+	 * @param expression
+	 * @param start      exclusive start in epoch millis
+	 * @param end        inclusive end in epoch millis or {@link #UNBOUNDED}
+	 */
+	FireTimeSpliterator(ZonedCronExpression expression, long start, long end) {
+		this.expression = expression;
+		this.current = start;
+		this.end = end;
+		this.resolution = expression.getExpression().isMinuteResolution() ? MILLIS_PER_MINUTE : MILLIS_PER_SECOND;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super Instant> action) {
+		if (current >= end) {
+			return false;
+		}
+		long next = expression.nextExecution(current);
+		if (next == CronExpression.NO_EXECUTION || next > end) {
+			current = end;
+			return false;
+		}
+		current = next;
+		action.accept(Instant.ofEpochMilli(next));
+		return true;
+	}
+
+	@Override
+	public Spliterator<Instant> trySplit() {
+		long remaining = end - current;
+		if (remaining < MIN_SPLIT_WINDOW) {
+			return null;
+		}
+
+		long split;
+		if (end == UNBOUNDED) {
+			split = remaining > prefixWindow ? current + prefixWindow : end;
+			prefixWindow = remaining / 2 > prefixWindow ? prefixWindow * 2 : prefixWindow;
+		} else {
+			split = current + remaining / 2;
+		}
+		// split on a boundary of the resolution, fire times never fall between two
+		split -= Math.floorMod(split, resolution);
+		if (split <= current || split >= end) {
+			return null;
+		}
+
+		Spliterator<Instant> prefix = new FireTimeSpliterator(expression, current, split);
+		current = split;
+		return prefix;
+	}
+
+	@Override
+	public long estimateSize() {
+		// upper bound, at most one fire time per minute or, with seconds, per second
+		return end == UNBOUNDED ? Long.MAX_VALUE : (end - current) / resolution + 1;
+	}
+
+	@Override
+	public int characteristics() {
+		return ORDERED | DISTINCT | SORTED | NONNULL | IMMUTABLE;
+	}
+
+	@Override
+	public Comparator<? super Instant> getComparator() {
+		return null;
+	}
+}
@@ -0,0 +1,41 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.Arrays;
+
+/**
+ * Growable bit set of schedule ids with a summary level, bit n of the summary is set when word n is non zero. This
+ * lets intersections skip empty regions 4096 ids at a time.
+ */
+final class IdBitSet {
+
+	private static final long[] EMPTY = new long[0];
+
+	long[] words = EMPTY;
+	long[] summary = EMPTY;
+
+	void set(int id) {
+		int word = id >>> 6;
+		if (word >= words.length) {
+			int length = Math.max(word + 1, words.length * 2);
+			words = Arrays.copyOf(words, length);
+			summary = Arrays.copyOf(summary, (length + 63) >>> 6);
+		}
+		words[word] |= 1L << id;
+		summary[word >>> 6] |= 1L << word;
+	}
+
+	void clear(int id) {
+		int word = id >>> 6;
+		if (word < words.length) {
+			words[word] &= ~(1L << id);
+			if (words[word] == 0) {
+				summary[word >>> 6] &= ~(1L << word);
+			}
+		}
+	}
+
+	boolean get(int id) {
+		int word = id >>> 6;
+		return word < words.length && (words[word] & (1L << id)) != 0;
+	}
+}
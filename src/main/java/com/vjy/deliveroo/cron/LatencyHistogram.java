@@ -0,0 +1,135 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in nanoseconds with log-linear buckets, like HdrHistogram.
+ * <P>
+ * Values below 128 have a bucket each, above that every power of two is split into 64 buckets, so a recorded value
+ * is reported within 1.6% of its true value over the whole range of long. Recording is lock free, one atomic
+ * increment of the bucket plus the count, total and maximum. Reads are not a consistent snapshot while values are
+ * recorded concurrently.
+ */
+public final class LatencyHistogram {
+
+	// buckets per power of two above the linear range
+	private static final int SUB_BUCKET_BITS = 6;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKETS = bucket(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder total = new LongAdder();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Bucket of value, the top 7 significant bits of the value.
+	 */
+	static int bucket(long value) {
+		int shift = Math.max(0, Long.SIZE - 1 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS);
+		return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+	}
+
+	/**
+	 * @return largest value of bucket
+	 */
+	static long highestValue(int bucket) {
+		int shift = Math.max(0, (bucket >> SUB_BUCKET_BITS) - 1);
+		long mantissa = bucket - ((long) shift << SUB_BUCKET_BITS);
+		return ((mantissa + 1) << shift) - 1;
+	}
+
+	/**
+	 * @param nanos latency, negative values are recorded as 0
+	 */
+	public void record(long nanos) {
+		long value = Math.max(nanos, 0L);
+		counts.incrementAndGet(bucket(value));
+		count.increment();
+		total.add(value);
+		long current;
+		while (value > (current = max.get()) && !max.compareAndSet(current, value)) {
+			// retry against the larger maximum of another thread
+		}
+	}
+
+	/**
+	 * @return number of recorded values
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * @return sum of recorded values
+	 */
+	public long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * @return largest recorded value, exact
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * @return mean of recorded values, 0 when empty
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0.0 : (double) total.sum() / n;
+	}
+
+	/**
+	 * Value at or below which given percentage of the recorded values fall.
+	 *
+	 * @param percentile 0 to 100
+	 * @return largest value of the bucket holding the percentile, at most the maximum, 0 when empty
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0.0 || percentile > 100.0) {
+			throw new IllegalArgumentException(
+					String.format("Invalid percentile [%s], must be in range [0-100]", percentile));
+		}
+		long[] snapshot = new long[BUCKETS];
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = counts.get(i);
+			n += snapshot[i];
+		}
+		if (n == 0) {
+			return 0L;
+		}
+		long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestValue(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Clear all recorded values, values recorded concurrently may be lost or partly kept.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0L);
+		}
+		count.reset();
+		total.reset();
+		max.set(0L);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%s mean=%.1f p50=%s p99=%s max=%s", getCount(), getMean(),
+				getValueAtPercentile(50), getValueAtPercentile(99), getMax());
+	}
+}
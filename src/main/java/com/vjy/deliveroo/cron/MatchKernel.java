@@ -0,0 +1,40 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * Kernel of {@link CronMatcher}, tests packed field masks against one value per field.
+ */
+interface MatchKernel {
+
+	/**
+	 * Scalar kernel, a branch free loop which the JIT unrolls.
+	 */
+	MatchKernel SCALAR = MatchKernel::matchScalar;
+
+	/**
+	 * Test a block of at most 64 schedules against the fields of one local date and time.
+	 * 
+	 * @param bits   packed masks, the column of field c starts at c * stride, fields in
+	 *               {@link com.vjy.deliveroo.cron.fields.FieldType} order
+	 * @param stride length of a column
+	 * @param start  first schedule of the block
+	 * @param end    schedule after the block
+	 * @return bit i is set when schedule start + i matches all fields, for schedules with
+	 *         {@link CronExpression#DAYS_UNION} set in the day of week mask either day field
+	 */
+	long match(long[] bits, int stride, int start, int end, int minute, int hour, int dayOfMonth, int month,
+			int dayOfWeek);
+
+	static long matchScalar(long[] bits, int stride, int start, int end, int minute, int hour, int dayOfMonth,
+			int month, int dayOfWeek) {
+		long matches = 0L;
+		for (int i = start; i < end; i++) {
+			long dayOfMonthMatch = bits[2 * stride + i] >>> dayOfMonth;
+			long daysOfWeek = bits[4 * stride + i];
+			long dayOfWeekMatch = daysOfWeek >>> dayOfWeek;
+			long match = (bits[i] >>> minute) & (bits[stride + i] >>> hour) & (bits[3 * stride + i] >>> month)
+					& ((dayOfMonthMatch & dayOfWeekMatch) | (daysOfWeek & (dayOfMonthMatch | dayOfWeekMatch))) & 1L;
+			matches |= match << (i - start);
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,22 @@
+package com.vjy.deliveroo.cron;
+
+/**
+ * How expressions fire when daylight saving time ends and local times are repeated, e.g. 01:00-01:59 happens twice.
+ * <P>
+ * Local times skipped when daylight saving time starts fire after the gap, shifted by the length of the gap. With a
+ * one hour gap at 01:00, 01:30 fires at 02:30 new local time.
+ */
+public enum OverlapPolicy {
+
+	/**
+	 * Each local time fires once, at its first occurrence. Suits jobs which must run once a day, like backups. An
+	 * expression like "* * * * *" does not fire during the repeated hour.
+	 */
+	FIRE_ONCE,
+
+	/**
+	 * Each occurrence of a local time fires, the expression is evaluated against the wall clock. Suits interval jobs
+	 * like "*&#47;5 * * * *" which then keep firing every five minutes.
+	 */
+	FIRE_TWICE
+}
@@ -0,0 +1,172 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics keeping a {@link LatencyHistogram} per operation and the count and latencies of each expression, to report
+ * the slowest and most frequent expressions.
+ * <P>
+ * Recording is lock free. Expressions are tracked per operation up to a maximum number of distinct expressions,
+ * later expressions only count in the histograms and {@link #getUntrackedCount(Operation)}.
+ */
+public final class RecordingCronMetrics implements CronMetrics {
+
+	public static final int DEFAULT_MAXIMUM_EXPRESSIONS = 10_000;
+
+	private final int maximumExpressions;
+	private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+	private final Map<Operation, ConcurrentHashMap<String, ExpressionStats>> expressions = new EnumMap<>(
+			Operation.class);
+	private final Map<Operation, LongAdder> untracked = new EnumMap<>(Operation.class);
+
+	public RecordingCronMetrics() {
+		this(DEFAULT_MAXIMUM_EXPRESSIONS);
+	}
+
+	/**
+	 * @param maximumExpressions distinct expressions tracked per operation
+	 */
+	public RecordingCronMetrics(int maximumExpressions) {
+		if (maximumExpressions < 0) {
+			throw new IllegalArgumentException(
+					"Invalid maximum expressions [" + maximumExpressions + "], must not be negative");
+		}
+		this.maximumExpressions = maximumExpressions;
+		// filled once, the maps are only read afterwards
+		for (Operation operation : Operation.values()) {
+			histograms.put(operation, new LatencyHistogram());
+			expressions.put(operation, new ConcurrentHashMap<>());
+			untracked.put(operation, new LongAdder());
+		}
+	}
+
+	@Override
+	public void record(Operation operation, String expression, long nanos) {
+		histograms.get(operation).record(nanos);
+		if (expression == null) {
+			return;
+		}
+		ConcurrentHashMap<String, ExpressionStats> stats = expressions.get(operation);
+		ExpressionStats expressionStats = stats.get(expression);
+		if (expressionStats == null) {
+			if (stats.size() >= maximumExpressions) {
+				untracked.get(operation).increment();
+				return;
+			}
+			expressionStats = stats.computeIfAbsent(expression, ExpressionStats::new);
+		}
+		expressionStats.record(nanos);
+	}
+
+	/**
+	 * @param operation
+	 * @return latencies of operation
+	 */
+	public LatencyHistogram getHistogram(Operation operation) {
+		return histograms.get(operation);
+	}
+
+	/**
+	 * @param operation
+	 * @return number of recorded operations
+	 */
+	public long getCount(Operation operation) {
+		return histograms.get(operation).getCount();
+	}
+
+	/**
+	 * @param operation
+	 * @return number of operations on expressions beyond the tracked maximum
+	 */
+	public long getUntrackedCount(Operation operation) {
+		return untracked.get(operation).sum();
+	}
+
+	/**
+	 * @param operation
+	 * @param n
+	 * @return at most n expressions with the largest maximum latency, slowest first
+	 */
+	public List<ExpressionStats> slowest(Operation operation, int n) {
+		return top(operation, n, Comparator.comparingLong(ExpressionStats::getMaxNanos));
+	}
+
+	/**
+	 * @param operation
+	 * @param n
+	 * @return at most n expressions with the most recorded operations, most frequent first
+	 */
+	public List<ExpressionStats> mostFrequent(Operation operation, int n) {
+		return top(operation, n, Comparator.comparingLong(ExpressionStats::getCount));
+	}
+
+	private List<ExpressionStats> top(Operation operation, int n, Comparator<ExpressionStats> order) {
+		List<ExpressionStats> stats = new ArrayList<>(expressions.get(operation).values());
+		stats.sort(order.reversed().thenComparing(ExpressionStats::getExpression));
+		return stats.size() > n ? new ArrayList<>(stats.subList(0, Math.max(n, 0))) : stats;
+	}
+
+	/**
+	 * Clear histograms and tracked expressions.
+	 */
+	public void reset() {
+		for (Operation operation : Operation.values()) {
+			histograms.get(operation).reset();
+			expressions.get(operation).clear();
+			untracked.get(operation).reset();
+		}
+	}
+
+	/**
+	 * Count and latencies of one expression for one operation.
+	 */
+	public static final class ExpressionStats {
+
+		private final String expression;
+		private final LongAdder count = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final AtomicLong maxNanos = new AtomicLong();
+
+		ExpressionStats(String expression) {
+			this.expression = expression;
+		}
+
+		void record(long nanos) {
+			count.increment();
+			totalNanos.add(nanos);
+			long current;
+			while (nanos > (current = maxNanos.get()) && !maxNanos.compareAndSet(current, nanos)) {
+				// retry against the larger maximum of another thread
+			}
+		}
+
+		public String getExpression() {
+			return expression;
+		}
+
+		public long getCount() {
+			return count.sum();
+		}
+
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		public long getMaxNanos() {
+			return maxNanos.get();
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%s count=%s total=%sns max=%sns", expression, getCount(), getTotalNanos(),
+					getMaxNanos());
+		}
+	}
+}
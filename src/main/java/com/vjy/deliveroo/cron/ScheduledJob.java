@@ -0,0 +1,166 @@
+package com.vjy.deliveroo.cron;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Job registered with a {@link CronScheduler}, the handle to cancel it.
+ * <P>
+ * The wheel links and position fields are guarded by the scheduler, the run counters by the job.
+ */
+public final class ScheduledJob {
+
+	static final int ACTIVE = 0;
+	static final int CANCELLED = 1;
+	static final int DONE = 2;
+
+	private final CronScheduler scheduler;
+	private final ZonedCronExpression expression;
+	private final Runnable task;
+	private final ConcurrencyPolicy policy;
+	private final int limit;
+
+	volatile int state = ACTIVE;
+	volatile long nextExecution;
+
+	// position in the wheel, level is -1 while the job is not linked into a slot
+	int level = -1;
+	int slot;
+	ScheduledJob prev;
+	ScheduledJob next;
+
+	// guarded by this
+	private int running;
+	private int queued;
+
+	ScheduledJob(CronScheduler scheduler, ZonedCronExpression expression, Runnable task, ConcurrencyPolicy policy,
+			int limit) {
+		this.scheduler = scheduler;
+		this.expression = expression;
+		this.task = task;
+		this.policy = policy;
+		this.limit = limit;
+	}
+
+	/**
+	 * Run the task for one firing according to the concurrency policy.
+	 *
+	 * @throws RejectedExecutionException if the executor does not accept the run
+	 */
+	void dispatch(Executor executor) {
+		if (policy == ConcurrencyPolicy.CONCURRENT) {
+			executor.execute(task);
+			return;
+		}
+		synchronized (this) {
+			if (running >= limit) {
+				if (policy == ConcurrencyPolicy.QUEUE) {
+					queued++;
+				}
+				return;
+			}
+			running++;
+		}
+		start(executor);
+	}
+
+	private void start(Executor executor) {
+		try {
+			executor.execute(() -> run(executor));
+		} catch (RejectedExecutionException e) {
+			synchronized (this) {
+				running--;
+			}
+			throw e;
+		}
+	}
+
+	private void run(Executor executor) {
+		try {
+			task.run();
+		} finally {
+			finished(executor);
+		}
+	}
+
+	private void finished(Executor executor) {
+		synchronized (this) {
+			if (queued == 0 || state == CANCELLED) {
+				queued = 0;
+				running--;
+				return;
+			}
+			// the finished run hands its slot to a queued firing
+			queued--;
+		}
+		try {
+			start(executor);
+		} catch (RejectedExecutionException e) {
+			// the queued firing is dropped
+		}
+	}
+
+	/**
+	 * Stop further executions, a running execution is not interrupted.
+	 *
+	 * @return false if the job was already cancelled or has no more executions
+	 */
+	public boolean cancel() {
+		if (!scheduler.cancel(this)) {
+			return false;
+		}
+		synchronized (this) {
+			queued = 0;
+		}
+		return true;
+	}
+
+	public boolean isCancelled() {
+		return state == CANCELLED;
+	}
+
+	/**
+	 * @return true while the job has further executions
+	 */
+	public boolean isActive() {
+		return state == ACTIVE;
+	}
+
+	/**
+	 * @return epoch millis of next execution or {@link CronExpression#NO_EXECUTION}
+	 */
+	public long getNextExecution() {
+		return state == ACTIVE ? nextExecution : CronExpression.NO_EXECUTION;
+	}
+
+	/**
+	 * @return number of runs currently running, not counted for {@link ConcurrencyPolicy#CONCURRENT}
+	 */
+	public synchronized int getRunning() {
+		return running;
+	}
+
+	/**
+	 * @return number of firings waiting for a run to finish
+	 */
+	public synchronized int getQueued() {
+		return queued;
+	}
+
+	public ZonedCronExpression getExpression() {
+		return expression;
+	}
+
+	public ConcurrencyPolicy getPolicy() {
+		return policy;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	@Override
+	public String toString() {
+		return expression.toString();
+	}
+}
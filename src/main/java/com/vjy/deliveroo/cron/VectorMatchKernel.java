@@ -0,0 +1,47 @@
+package com.vjy.deliveroo.cron;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Kernel testing as many schedules per instruction as the preferred vector shape holds, 4 with AVX2 and 8 with
+ * AVX-512. Only loaded when the <code>jdk.incubator.vector</code> module is present, see {@link CronMatcher}.
+ */
+final class VectorMatchKernel implements MatchKernel {
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	@Override
+	public long match(long[] bits, int stride, int start, int end, int minute, int hour, int dayOfMonth, int month,
+			int dayOfWeek) {
+		int lanes = SPECIES.length();
+		long minuteBit = 1L << minute;
+		long hourBit = 1L << hour;
+		long dayOfMonthBit = 1L << dayOfMonth;
+		long monthBit = 1L << month;
+		long dayOfWeekBit = 1L << dayOfWeek;
+		long matches = 0L;
+		int i = start;
+		for (; i + lanes <= end; i += lanes) {
+			VectorMask<Long> dayOfMonthMatch = test(bits, 2 * stride + i, dayOfMonthBit);
+			VectorMask<Long> dayOfWeekMatch = test(bits, 4 * stride + i, dayOfWeekBit);
+			VectorMask<Long> dayMatch = dayOfMonthMatch.and(dayOfWeekMatch).or(
+					test(bits, 4 * stride + i, CronExpression.DAYS_UNION).and(dayOfMonthMatch.or(dayOfWeekMatch)));
+			VectorMask<Long> match = test(bits, i, minuteBit)
+					.and(test(bits, stride + i, hourBit))
+					.and(test(bits, 3 * stride + i, monthBit))
+					.and(dayMatch);
+			matches |= match.toLong() << (i - start);
+		}
+		if (i < end) {
+			matches |= MatchKernel.matchScalar(bits, stride, i, end, minute, hour, dayOfMonth, month, dayOfWeek) << (i - start);
+		}
+		return matches;
+	}
+
+	private static VectorMask<Long> test(long[] bits, int offset, long bit) {
+		return LongVector.fromArray(SPECIES, bits, offset).and(bit).compare(VectorOperators.NE, 0L);
+	}
+}
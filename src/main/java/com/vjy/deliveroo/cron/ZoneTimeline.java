@@ -0,0 +1,219 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Offset transitions of a time zone as primitive tables, one table per year built on first use and cached. Lets the
+ * execution time computation convert between instants and local times without {@link java.time} objects.
+ * <P>
+ * Timelines are shared per zone and thread safe.
+ */
+final class ZoneTimeline {
+
+	static final long NO_TRANSITION_BEFORE = Long.MIN_VALUE;
+	static final long NO_TRANSITION_AFTER = Long.MAX_VALUE;
+	static final long NO_LOCAL_MINUTE = Long.MIN_VALUE;
+
+	private static final int FIRST_CACHED_YEAR = 1900;
+	private static final int LAST_CACHED_YEAR = 2399;
+	private static final int SECONDS_PER_DAY = CronCalendar.MINUTES_PER_DAY * CronCalendar.SECONDS_PER_MINUTE;
+	private static final ConcurrentHashMap<ZoneId, ZoneTimeline> TIMELINES = new ConcurrentHashMap<>();
+
+	private final ZoneRules rules;
+	private final boolean fixed;
+	private final int fixedOffset;
+	private final long firstTransition;
+	private final long lastTransition;
+	private final AtomicReferenceArray<Transitions> years = new AtomicReferenceArray<>(
+			LAST_CACHED_YEAR - FIRST_CACHED_YEAR + 1);
+
+	/**
+	 * Transitions within one year (UTC).
+	 */
+	private static final class Transitions {
+		// offset at the start of the year
+		final int startOffset;
+		final long[] epochSeconds;
+		final int[] offsetsAfter;
+
+		Transitions(int startOffset, long[] epochSeconds, int[] offsetsAfter) {
+			this.startOffset = startOffset;
+			this.epochSeconds = epochSeconds;
+			this.offsetsAfter = offsetsAfter;
+		}
+	}
+
+	private ZoneTimeline(ZoneRules rules) {
+		this.rules = rules;
+		this.fixedOffset = rules.getOffset(Instant.EPOCH).getTotalSeconds();
+
+		ZoneOffsetTransition first = rules.nextTransition(Instant.MIN);
+		List<ZoneOffsetTransition> historic = rules.getTransitions();
+		this.fixed = rules.isFixedOffset() || first == null;
+		this.firstTransition = first == null ? NO_TRANSITION_AFTER : first.toEpochSecond();
+		if (!rules.getTransitionRules().isEmpty()) {
+			this.lastTransition = NO_TRANSITION_AFTER;
+		} else if (!historic.isEmpty()) {
+			this.lastTransition = historic.get(historic.size() - 1).toEpochSecond();
+		} else {
+			this.lastTransition = NO_TRANSITION_BEFORE;
+		}
+	}
+
+	static ZoneTimeline of(ZoneId zone) {
+		ZoneTimeline timeline = TIMELINES.get(zone);
+		return timeline != null ? timeline : TIMELINES.computeIfAbsent(zone, z -> new ZoneTimeline(z.getRules()));
+	}
+
+	boolean isFixedOffset() {
+		return fixed;
+	}
+
+	/**
+	 * @return offset in seconds at given instant
+	 */
+	int offsetAt(long epochSecond) {
+		if (fixed) {
+			return fixedOffset;
+		}
+		Transitions transitions = transitions(yearOf(epochSecond));
+		int offset = transitions.startOffset;
+		for (int i = 0; i < transitions.epochSeconds.length && transitions.epochSeconds[i] <= epochSecond; i++) {
+			offset = transitions.offsetsAfter[i];
+		}
+		return offset;
+	}
+
+	/**
+	 * @return first transition after given instant or {@link #NO_TRANSITION_AFTER}
+	 */
+	long nextTransition(long epochSecond) {
+		if (fixed || epochSecond >= lastTransition) {
+			return NO_TRANSITION_AFTER;
+		}
+		if (epochSecond < firstTransition) {
+			return firstTransition;
+		}
+		for (int year = yearOf(epochSecond);; year++) {
+			long[] epochSeconds = transitions(year).epochSeconds;
+			for (int i = 0; i < epochSeconds.length; i++) {
+				if (epochSeconds[i] > epochSecond) {
+					return epochSeconds[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return last transition at or before given instant or {@link #NO_TRANSITION_BEFORE}
+	 */
+	long previousTransition(long epochSecond) {
+		if (fixed || epochSecond < firstTransition) {
+			return NO_TRANSITION_BEFORE;
+		}
+		if (epochSecond >= lastTransition) {
+			return lastTransition;
+		}
+		for (int year = yearOf(epochSecond);; year--) {
+			long[] epochSeconds = transitions(year).epochSeconds;
+			for (int i = epochSeconds.length - 1; i >= 0; i--) {
+				if (epochSeconds[i] <= epochSecond) {
+					return epochSeconds[i];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Local minute whose fields fire at given minute, the wall clock minute. Like the execution time computation, the
+	 * second pass of local minutes repeated when daylight saving time ends does not fire with
+	 * {@link OverlapPolicy#FIRE_ONCE}.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @return minutes since 1970-01-01T00:00 local time or {@link #NO_LOCAL_MINUTE}
+	 */
+	long localMinute(long epochMinute, OverlapPolicy policy) {
+		long epochSecond = epochMinute * CronCalendar.SECONDS_PER_MINUTE;
+		int offset = offsetAt(epochSecond);
+		if (!fixed && policy == OverlapPolicy.FIRE_ONCE) {
+			long transition = previousTransition(epochSecond);
+			if (transition != NO_TRANSITION_BEFORE) {
+				int before = offsetAt(transition - 1);
+				if (before > offset && epochSecond < transition + before - offset) {
+					// the minute already fired before the transition, with the earlier offset
+					return NO_LOCAL_MINUTE;
+				}
+			}
+		}
+		return Math.floorDiv(epochSecond + offset, CronCalendar.SECONDS_PER_MINUTE);
+	}
+
+	/**
+	 * Local minute skipped by a gap when daylight saving time starts which fires at given minute, shifted by the
+	 * length of the gap. With a one hour gap at 01:00, 01:30 fires at 02:30 new local time.
+	 *
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @return minutes since 1970-01-01T00:00 local time or {@link #NO_LOCAL_MINUTE} outside a gap
+	 */
+	long gapMinute(long epochMinute) {
+		if (fixed) {
+			return NO_LOCAL_MINUTE;
+		}
+		long epochSecond = epochMinute * CronCalendar.SECONDS_PER_MINUTE;
+		long transition = previousTransition(epochSecond);
+		if (transition == NO_TRANSITION_BEFORE) {
+			return NO_LOCAL_MINUTE;
+		}
+		int before = offsetAt(transition - 1);
+		int offset = offsetAt(transition);
+		if (before >= offset || epochSecond >= transition + offset - before) {
+			return NO_LOCAL_MINUTE;
+		}
+		return Math.floorDiv(epochSecond + before, CronCalendar.SECONDS_PER_MINUTE);
+	}
+
+	private static int yearOf(long epochSecond) {
+		return CronCalendar.year(CronCalendar.toDate(Math.floorDiv(epochSecond, SECONDS_PER_DAY)));
+	}
+
+	private Transitions transitions(int year) {
+		if (year < FIRST_CACHED_YEAR || year > LAST_CACHED_YEAR) {
+			return build(year);
+		}
+		Transitions transitions = years.get(year - FIRST_CACHED_YEAR);
+		if (transitions == null) {
+			transitions = build(year);
+			years.set(year - FIRST_CACHED_YEAR, transitions);
+		}
+		return transitions;
+	}
+
+	private Transitions build(int year) {
+		long start = CronCalendar.toEpochDay(year, 1, 1) * SECONDS_PER_DAY;
+		long end = CronCalendar.toEpochDay(year + 1, 1, 1) * SECONDS_PER_DAY;
+
+		long[] epochSeconds = new long[4];
+		int[] offsetsAfter = new int[4];
+		int count = 0;
+		ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochSecond(start - 1));
+		while (transition != null && transition.toEpochSecond() < end) {
+			if (count == epochSeconds.length) {
+				epochSeconds = Arrays.copyOf(epochSeconds, count * 2);
+				offsetsAfter = Arrays.copyOf(offsetsAfter, count * 2);
+			}
+			epochSeconds[count] = transition.toEpochSecond();
+			offsetsAfter[count] = transition.getOffsetAfter().getTotalSeconds();
+			count++;
+			transition = rules.nextTransition(transition.getInstant());
+		}
+		return new Transitions(rules.getOffset(Instant.ofEpochSecond(start)).getTotalSeconds(),
+				Arrays.copyOf(epochSeconds, count), Arrays.copyOf(offsetsAfter, count));
+	}
+}
@@ -0,0 +1,70 @@
+package com.vjy.deliveroo.cron;
+
+import java.time.ZoneId;
+
+/**
+ * Expression evaluated in a time zone, see {@link CronExpression#inZone(ZoneId, OverlapPolicy)}. The offset
+ * transitions of the zone are looked up in cached per year tables and the search runs on primitive local minutes,
+ * so evaluation does not create {@link java.time} objects.
+ * <P>
+ * Immutable and thread safe.
+ */
+public final class ZonedCronExpression {
+
+	private final CronExpression expression;
+	private final ZoneId zone;
+	private final ZoneTimeline timeline;
+	private final OverlapPolicy policy;
+
+	ZonedCronExpression(CronExpression expression, ZoneId zone, ZoneTimeline timeline, OverlapPolicy policy) {
+		this.expression = expression;
+		this.zone = zone;
+		this.timeline = timeline;
+		this.policy = policy;
+	}
+
+	/**
+	 * @param epochMillis exclusive start
+	 * @return epoch millis of next execution or {@link CronExpression#NO_EXECUTION}
+	 */
+	public long nextExecution(long epochMillis) {
+		return expression.nextExecution(epochMillis, timeline, policy);
+	}
+
+	/**
+	 * @param epochMillis exclusive end
+	 * @return epoch millis of previous execution or {@link CronExpression#NO_EXECUTION}
+	 */
+	public long previousExecution(long epochMillis) {
+		return expression.previousExecution(epochMillis, timeline, policy);
+	}
+
+	/**
+	 * Check if the expression fires within given minute.
+	 * 
+	 * @param epochMinute minutes since 1970-01-01T00:00Z
+	 * @return true if it fires
+	 */
+	public boolean firesAt(long epochMinute) {
+		long start = epochMinute * 60_000L;
+		long next = nextExecution(start - 1);
+		return next != CronExpression.NO_EXECUTION && next < start + 60_000L;
+	}
+
+	public CronExpression getExpression() {
+		return expression;
+	}
+
+	public ZoneId getZone() {
+		return zone;
+	}
+
+	public OverlapPolicy getPolicy() {
+		return policy;
+	}
+
+	@Override
+	public String toString() {
+		return expression + " (" + zone + ", " + policy + ")";
+	}
+}
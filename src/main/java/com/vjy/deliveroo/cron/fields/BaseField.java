@@ -1,106 +1,248 @@
 package com.vjy.deliveroo.cron.fields;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.IntConsumer;
 
+/**
+ * Immutable cron field, the field expression is parsed once in the constructor. Subclasses compile the parts into
+ * their representation of the values, a long bit mask for {@link SimpleField} and a multi word bit set for
+ * {@link YearField} whose values do not fit a long.
+ */
 public abstract class BaseField {
 
 	public static final String RANGE_SEP = "-";
 	public static final String LIST_SEP = ",";
 	public static final String INCREMENT_SEP = "/";
 	public static final String ALL = "*";
+	public static final String IGNORE = "?";
+	public static final String LAST_MODIFIER = "L";
+	public static final String WEEKDAY_MODIFIER = "W";
+	public static final String NTH_SEP = "#";
 
-	//@formatter:off
-//	private static final Pattern CRON_EXP_PTRN = Pattern
-//            .compile("(?:                                             # start of group 1\n"
-//                    + "   (?:(?<all>\\" + ALL + ")|(?<ignore>\\" + IGNORE + ")|(?<last>" + LAST_MODIFIER + ")  # global flag (L, ?, *)\n"
-//                    + " | (?<start>[0-9]{1,2}|[a-z]{3,3})              # or start number or symbol\n"
-//                    + "      (?:                                        # start of group 2\n"
-//                    + "         (?<metaChar>" + LAST_MODIFIER + "|" + WEEKDAY_MODIFIER + ")                             # meta char (L,W)\n"
-//                    + "       | " + RANGE_SEP + "(?<end>[0-9]{1,2}|[a-z]{3,3})        # or end nummer or symbol (in range)\n"
-//                    + "      )?                                         # end of group 2\n"
-//                    + ")                                              # end of group 1\n"
-//                    + "(?:(?<incMetaChar>" + INCREMENT_SEP
-//							+ "|\\#)(?<inc>[0-9]{1,7}))?        # increment and increment meta char (/ or \\#)\n",
-//                    Pattern.CASE_INSENSITIVE | Pattern.COMMENTS);
-	
-	  private static final Pattern CRON_EXP_PTRN = Pattern
-	            .compile("(?:"
-	                    + "  (?:(?<all>\\*))  # global flag (*)\n"
-	                    + "  | (?<start>[0-9]{1,2}|[a-z]{3,3}) \n"
-	                    + "      (?:\n"
-	                    + "       -(?<end>[0-9]{1,2}|[a-z]{3,3})\n"
-	                    + "      )?\n"
-	                    + ")\n"
-	                    + "(?:(?<incMetaChar>/)(?<inc>[0-9]{1,7}))?        # increment and increment modifier (/)\n",
-	                    Pattern.CASE_INSENSITIVE | Pattern.COMMENTS);
-
-	//@formatter:on
-
-	protected FieldType type = null;
-	private List<FieldPart> parts = new ArrayList<>();
+	protected final FieldType type;
+	private final List<FieldPart> parts;
+	private final boolean calendarDependent;
 
 	protected BaseField(FieldType type, String fldExp) {
-		this.type = type;
-		parse(fldExp);
+		this(type, fldExp, 0, fldExp.length());
 	}
 
-	private void parse(String exp) {
-		// handle range for expression part
-		String[] fldRngParts = exp.split(",");
+	/**
+	 * Construct field from a region of a larger expression, avoids copying the field text.
+	 * 
+	 * @param type
+	 * @param exp   expression containing the field
+	 * @param start index of first field character
+	 * @param end   index after last field character
+	 */
+	protected BaseField(FieldType type, CharSequence exp, int start, int end) {
+		this.type = type;
+		this.parts = parse(exp, start, end);
+		boolean calendar = false;
+		for (FieldPart part : parts) {
+			calendar |= isCalendarPart(part);
+		}
+		this.calendarDependent = calendar;
+	}
 
-		for (String rngPart : fldRngParts) {
+	/**
+	 * Single pass parser for the field expression. Grammar of each comma separated part (case-insensitive):
+	 * 
+	 * <pre>
+	 * part  := ( '*' | '?' | 'L' [ 'W' ] | value [ '-' value | 'L' | 'W' ] ) [ ( '/' | '#' ) digit{1,7} ]
+	 * value := digit{1,2} | letter{3}, digit{1,4} for years
+	 * </pre>
+	 * 
+	 * Like {@link String#split(String)}, trailing empty parts are ignored. '?', 'L', 'W' and '#' are only read for
+	 * fields allowing modifiers, see {@link #allowsModifiers()}, and '?' only as the whole field. Which of them a field
+	 * allows is checked by {@link #partMetaValidation(FieldPart)}.
+	 */
+	private List<FieldPart> parse(CharSequence exp, int start, int end) {
+		if (start == end) {
+			throw invalidPart(exp, start, end);
+		}
 
-			Matcher m = CRON_EXP_PTRN.matcher(rngPart);
-			if (!m.matches()) {
-				throw new IllegalArgumentException("Invalid cron input '" + rngPart + "' for field [" + type + "]");
+		List<FieldPart> parts = new ArrayList<>();
+		int partStart = start;
+		while (partStart < end) {
+			int partEnd = partStart;
+			while (partEnd < end && exp.charAt(partEnd) != ',') {
+				partEnd++;
+			}
+			if (partStart == partEnd && onlySeparators(exp, partEnd, end)) {
+				break;
 			}
+			boolean whole = partStart == start && onlySeparators(exp, partEnd, end);
+			parts.add(parsePart(exp, partStart, partEnd, whole));
+			partStart = partEnd + 1;
+		}
+		return Collections.unmodifiableList(parts);
+	}
 
-			String startNumber = m.group("start");
-			// "-" range is specified
-			String endNumber = m.group("end");
-			// "/" 
-			String incMetaChar = m.group("incMetaChar");
-			String increment = m.group("inc");
-
-			FieldPart fldPart = new FieldPart();
-
-			if (startNumber != null) {
-				fldPart.from = mapToValue(startNumber);
-				if (endNumber != null) {
-					fldPart.to = mapToValue(endNumber);
-				} else if (increment != null) {
-					fldPart.to = type.getTo();
-				} else {
-					fldPart.to = fldPart.from;
+	/**
+	 * @param whole true if the part is the whole field, '?' is only allowed alone
+	 */
+	private FieldPart parsePart(CharSequence exp, int start, int end, boolean whole) {
+		boolean modifiers = allowsModifiers();
+		int i = start;
+		boolean all = i < end && exp.charAt(i) == '*';
+		String metaChar = null;
+		int fromEnd = -1;
+		int toStart = -1;
+		int toEnd = -1;
+		int incStart = -1;
+		String increMetaChar = null;
+
+		if (all) {
+			i++;
+		} else if (modifiers && whole && i < end && exp.charAt(i) == '?') {
+			metaChar = IGNORE;
+			i++;
+		} else if (modifiers && isLastModifier(exp, i, end)) {
+			metaChar = LAST_MODIFIER;
+			if (++i < end && upperCase(exp.charAt(i)) == 'W') {
+				metaChar = LAST_MODIFIER + WEEKDAY_MODIFIER;
+				i++;
+			}
+		} else {
+			fromEnd = scanValue(exp, i, end);
+			if (fromEnd < 0) {
+				throw invalidPart(exp, start, end);
+			}
+			i = fromEnd;
+			if (i < end && exp.charAt(i) == '-') {
+				toStart = i + 1;
+				toEnd = scanValue(exp, toStart, end);
+				if (toEnd < 0) {
+					throw invalidPart(exp, start, end);
 				}
+				i = toEnd;
+			} else if (modifiers && i < end && (upperCase(exp.charAt(i)) == 'L' || upperCase(exp.charAt(i)) == 'W')) {
+				metaChar = upperCase(exp.charAt(i)) == 'L' ? LAST_MODIFIER : WEEKDAY_MODIFIER;
+				i++;
+			}
+		}
 
-			} else if (m.group("all") != null) {
-				fldPart.from = type.getFrom();
-				fldPart.to = type.getTo();
-				fldPart.all = true;
+		if (i < end && (exp.charAt(i) == '/' || (modifiers && exp.charAt(i) == '#'))) {
+			increMetaChar = exp.charAt(i) == '/' ? INCREMENT_SEP : NTH_SEP;
+			incStart = ++i;
+			while (i < end && i - incStart < 7 && isDigit(exp.charAt(i))) {
+				i++;
+			}
+			if (i == incStart) {
+				throw invalidPart(exp, start, end);
+			}
+		}
 
+		if (i != end) {
+			throw invalidPart(exp, start, end);
+		}
+
+		int from;
+		int to;
+		if (all || IGNORE.equals(metaChar)) {
+			from = type.getFrom();
+			to = type.getTo();
+		} else if (fromEnd < 0 && LAST_MODIFIER.equals(metaChar) && increMetaChar == null && lastValue() >= 0) {
+			// L alone is a plain value in fields whose last value does not depend on the month
+			from = lastValue();
+			to = from;
+			metaChar = null;
+		} else if (fromEnd < 0) {
+			// L and LW have no value
+			from = -1;
+			to = -1;
+		} else {
+			from = value(exp, start, fromEnd);
+			if (toStart >= 0) {
+				to = value(exp, toStart, toEnd);
+			} else if (INCREMENT_SEP.equals(increMetaChar)) {
+				to = type.getTo();
 			} else {
-				throw new IllegalArgumentException(
-						"Invalid expression field part: " + rngPart + " for field [" + type + "]");
+				to = from;
 			}
+		}
+
+		FieldPart fldPart = new FieldPart(from, to, all, metaChar, increMetaChar,
+				incStart >= 0 ? digits(exp, incStart, end) : -1);
+		rangeValidation(fldPart);
+		partMetaValidation(fldPart);
+		return fldPart;
+	}
+
+	/**
+	 * L at start of a part is the last modifier unless it starts a three letter name.
+	 */
+	private static boolean isLastModifier(CharSequence exp, int start, int end) {
+		return start < end && upperCase(exp.charAt(start)) == 'L'
+				&& !(start + 2 < end && isLetter(exp.charAt(start + 1)) && isLetter(exp.charAt(start + 2)));
+	}
+
+	private static char upperCase(char c) {
+		return c >= 'a' && c <= 'z' ? (char) (c - 'a' + 'A') : c;
+	}
 
-			if (increment != null) {
-				fldPart.increMetaChar = incMetaChar;
-				fldPart.increValue = Integer.parseInt(increment);
+	/**
+	 * Scan a value, one or two digits (up to four for years) or exactly three letters.
+	 * 
+	 * @return index after the value or -1 if there is no value at start
+	 */
+	private int scanValue(CharSequence exp, int start, int end) {
+		if (start < end && isDigit(exp.charAt(start))) {
+			int maxEnd = Math.min(end, start + (type.getTo() > 99 ? 4 : 2));
+			int i = start + 1;
+			while (i < maxEnd && isDigit(exp.charAt(i))) {
+				i++;
 			}
+			return i;
+		}
+		for (int i = start; i < start + 3; i++) {
+			if (i >= end || !isLetter(exp.charAt(i))) {
+				return -1;
+			}
+		}
+		return start + 3;
+	}
 
-			rangeValidation(fldPart);
-			partMetaValidation(fldPart);
-			parts.add(fldPart);
+	private int value(CharSequence exp, int start, int end) {
+		if (isDigit(exp.charAt(start))) {
+			return mapToValue(digits(exp, start, end), end - start);
 		}
+		return mapToValue(exp.subSequence(start, end).toString());
+	}
+
+	private static int digits(CharSequence exp, int start, int end) {
+		int value = 0;
+		for (int i = start; i < end; i++) {
+			value = value * 10 + (exp.charAt(i) - '0');
+		}
+		return value;
+	}
+
+	private static boolean onlySeparators(CharSequence exp, int start, int end) {
+		for (int i = start; i < end; i++) {
+			if (exp.charAt(i) != ',') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
 
-//		Collections.sort(parts);
+	private static boolean isLetter(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+	}
+
+	private IllegalArgumentException invalidPart(CharSequence exp, int start, int end) {
+		return new IllegalArgumentException(
+				"Invalid cron input '" + exp.subSequence(start, end) + "' for field [" + type + "]");
 	}
 
 	/**
@@ -120,7 +262,26 @@ public abstract class BaseField {
 	}
 
 	/**
-	 * Validate meta characters.
+	 * Check if the parser reads the ?, L, W and # modifiers, otherwise parts with them are invalid input. Only the day
+	 * fields override this, which modifiers they allow is then checked by {@link #partMetaValidation(FieldPart)}.
+	 * 
+	 * @return false
+	 */
+	protected boolean allowsModifiers() {
+		return false;
+	}
+
+	/**
+	 * Value of an L part without a value, or -1 if the last value depends on the month.
+	 * 
+	 * @return -1
+	 */
+	protected int lastValue() {
+		return -1;
+	}
+
+	/**
+	 * Validate meta characters, fields allowing L, W, # or ? override this.
 	 */
 	protected void partMetaValidation(FieldPart part) {
 		if (part.metaChar != null) {
@@ -129,6 +290,9 @@ public abstract class BaseField {
 		} else if (part.increMetaChar != null && !INCREMENT_SEP.equals(part.increMetaChar)) {
 			throw new IllegalArgumentException(String.format("Invalid increment meta character [%s] for field [%s]",
 					part.increMetaChar, type.toString()));
+		} else if (part.increMetaChar != null && part.increValue < 1) {
+			throw new IllegalArgumentException(
+					String.format("Invalid increment [%s] for field [%s]", part.increValue, type.toString()));
 		}
 	}
 
@@ -144,7 +308,19 @@ public abstract class BaseField {
 		if (type.getNames() != null && (idx = type.getNames().indexOf(value.toUpperCase(Locale.getDefault()))) >= 0) {
 			return idx + type.getFrom();
 		}
-		return Integer.parseInt(value);
+		return mapToValue(Integer.parseInt(value), value.length());
+	}
+
+	/**
+	 * Map numeric field value, fields with aliased numbers override this. The number of digits lets an alias match
+	 * the literal token only, e.g. "0" but not "00".
+	 * 
+	 * @param value
+	 * @param digits number of digits the value was written with
+	 * @return
+	 */
+	protected int mapToValue(int value, int digits) {
+		return value;
 	}
 
 	public Set<Integer> get() {
@@ -152,6 +328,7 @@ public abstract class BaseField {
 		Set<Integer> result = null;
 		switch (type) {
 
+		case SECOND:
 		case MINUTE:
 			Set<Integer> minutes = getMinutes();
 			result = minutes;
@@ -171,37 +348,73 @@ public abstract class BaseField {
 		return result;
 	}
 
-	protected Set<Integer> build() {
+	/**
+	 * L, W and # parts depend on the month, they are evaluated by the day fields and not compiled.
+	 */
+	static boolean isCalendarPart(FieldPart part) {
+		return (part.metaChar != null && !IGNORE.equals(part.metaChar)) || NTH_SEP.equals(part.increMetaChar);
+	}
 
-		Set<Integer> values = new TreeSet<>();
-		parts.forEach(fieldPart -> {
-			// for all (*)
-			if (fieldPart.all && null == fieldPart.increMetaChar) {
-				int i = fieldPart.from;
-				while (i <= fieldPart.to) {
-					values.add(i++);
-				}
-			}
-			// for range (0-5)
-			else if (null == fieldPart.metaChar && null == fieldPart.increMetaChar) {
-				int inc = fieldPart.from;
-				while (inc <= fieldPart.to) {
-					values.add(inc++);
-				}
-			} // for increment (/)
-			else if (null != fieldPart.increMetaChar) {
-				values.add(fieldPart.from);
-				int inc = fieldPart.from + fieldPart.increValue;
-				while (inc <= fieldPart.to) {
-					values.add(inc);
-					inc = inc + fieldPart.increValue;
-				}
-			}
-		});
+	/**
+	 * @return parsed parts of this field
+	 */
+	List<FieldPart> parts() {
+		return parts;
+	}
 
-		return values;
+	/**
+	 * Check if the days of this field depend on the month, for L, W and # parts. Such days are not part of the
+	 * compiled bit mask.
+	 * 
+	 * @return true if the field has a calendar dependent part
+	 */
+	public boolean isCalendarDependent() {
+		return calendarDependent;
 	}
 
+	/**
+	 * Expanded values of this field.
+	 * 
+	 * @return sorted field values
+	 */
+	protected abstract Set<Integer> build();
+
+	/**
+	 * Check if value is part of this field.
+	 * 
+	 * @param value
+	 * @return true when value is set
+	 */
+	public abstract boolean matches(int value);
+
+	/**
+	 * Find smallest value of this field which is greater than or equal to given value.
+	 * 
+	 * @param value
+	 * @return next value or -1 if there is none
+	 */
+	public abstract int nextSetAtOrAfter(int value);
+
+	/**
+	 * Find largest value of this field which is less than or equal to given value.
+	 * 
+	 * @param value
+	 * @return previous value or -1 if there is none
+	 */
+	public abstract int previousSetAtOrBefore(int value);
+
+	/**
+	 * @return number of values in this field
+	 */
+	public abstract int cardinality();
+
+	/**
+	 * Pass each value of this field to action in ascending order.
+	 * 
+	 * @param action
+	 */
+	public abstract void forEach(IntConsumer action);
+
 	protected Set<Integer> getMinutes() {
 		return build();
 	}
@@ -0,0 +1,58 @@
+package com.vjy.deliveroo.cron.fields;
+
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Read only {@link java.util.Set} view over a field bit mask, iterates values in ascending order.
+ */
+final class BitMaskSet extends AbstractSet<Integer> {
+
+	private final long bits;
+
+	BitMaskSet(long bits) {
+		this.bits = bits;
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		if (!(o instanceof Integer)) {
+			return false;
+		}
+		int value = (Integer) o;
+		return value >= 0 && value < Long.SIZE && (bits & (1L << value)) != 0;
+	}
+
+	@Override
+	public int size() {
+		return Long.bitCount(bits);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return bits == 0;
+	}
+
+	@Override
+	public Iterator<Integer> iterator() {
+		return new Iterator<Integer>() {
+			private long remaining = bits;
+
+			@Override
+			public boolean hasNext() {
+				return remaining != 0;
+			}
+
+			@Override
+			public Integer next() {
+				if (remaining == 0) {
+					throw new NoSuchElementException();
+				}
+				int value = Long.numberOfTrailingZeros(remaining);
+				remaining &= remaining - 1;
+				return value;
+			}
+		};
+	}
+}
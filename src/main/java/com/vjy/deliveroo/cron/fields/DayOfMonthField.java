@@ -4,8 +4,91 @@ import java.util.Set;
 
 public class DayOfMonthField extends SimpleField {
 
+	// days of a month matching this field, indexed by day of week of the 1st and length of the month
+	private final long[] monthDays = new long[32];
+
 	public DayOfMonthField(FieldType type, String fldExp) {
-		super(type, fldExp);
+		this(type, fldExp, 0, fldExp.length());
+	}
+
+	public DayOfMonthField(FieldType type, CharSequence exp, int start, int end) {
+		super(type, exp, start, end);
+		for (int first = 1; first <= 7; first++) {
+			for (int length = 28; length <= 31; length++) {
+				long days = getBits() & (-1L >>> (Long.SIZE - 1 - length));
+				for (FieldPart part : parts()) {
+					days |= calendarDays(part, first, length);
+				}
+				monthDays[index(first, length)] = days;
+			}
+		}
+	}
+
+	private static int index(int firstDayOfWeek, int lengthOfMonth) {
+		return firstDayOfWeek << 2 | (lengthOfMonth - 28);
+	}
+
+	/**
+	 * Days of L, LW and nW parts.
+	 */
+	private static long calendarDays(FieldPart part, int first, int length) {
+		if (LAST_MODIFIER.equals(part.metaChar)) {
+			return 1L << length;
+		} else if ((LAST_MODIFIER + WEEKDAY_MODIFIER).equals(part.metaChar)) {
+			return 1L << nearestWeekday(length, first, length);
+		} else if (WEEKDAY_MODIFIER.equals(part.metaChar) && part.from <= length) {
+			return 1L << nearestWeekday(part.from, first, length);
+		}
+		return 0L;
+	}
+
+	/**
+	 * Weekday nearest to day without leaving the month, a saturday moves to friday unless it is the 1st and a sunday
+	 * moves to monday unless it is the last day.
+	 */
+	private static int nearestWeekday(int day, int first, int length) {
+		int dayOfWeek = (first - 1 + day - 1) % 7 + 1;
+		if (dayOfWeek == 6) {
+			return day == 1 ? 3 : day - 1;
+		} else if (dayOfWeek == 7) {
+			return day == length ? day - 2 : day + 1;
+		}
+		return day;
+	}
+
+	@Override
+	protected boolean allowsModifiers() {
+		return true;
+	}
+
+	@Override
+	protected void partMetaValidation(FieldPart part) {
+		if (LAST_MODIFIER.equals(part.metaChar) && part.from != -1) {
+			// nL is only a day of week part
+			throw new IllegalArgumentException(
+					String.format("Invalid meta character [%s] for field [%s]", part.metaChar, type.toString()));
+		}
+		if (IGNORE.equals(part.metaChar) || LAST_MODIFIER.equals(part.metaChar)
+				|| (LAST_MODIFIER + WEEKDAY_MODIFIER).equals(part.metaChar)
+				|| WEEKDAY_MODIFIER.equals(part.metaChar)) {
+			if (part.increMetaChar != null) {
+				throw new IllegalArgumentException(String.format("Invalid increment meta character [%s] for field [%s]",
+						part.increMetaChar, type.toString()));
+			}
+			return;
+		}
+		super.partMetaValidation(part);
+	}
+
+	/**
+	 * Days of a month which are part of this field, bit n represents day n.
+	 * 
+	 * @param firstDayOfWeek day of week of the 1st of the month, 1 (monday) to 7 (sunday)
+	 * @param lengthOfMonth
+	 * @return day bit mask
+	 */
+	public long daysOfMonth(int firstDayOfWeek, int lengthOfMonth) {
+		return monthDays[index(firstDayOfWeek, lengthOfMonth)];
 	}
 
 	protected Set<Integer> getDaysOfMonth() {
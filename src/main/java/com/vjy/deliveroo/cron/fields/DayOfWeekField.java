@@ -4,14 +4,95 @@ import java.util.Set;
 
 public class DayOfWeekField extends SimpleField {
 
+	// days of a month matching this field, indexed by day of week of the 1st and length of the month
+	private final long[] monthDays = new long[32];
+
 	public DayOfWeekField(FieldType type, String fldExp) {
-		super(type, fldExp);
+		this(type, fldExp, 0, fldExp.length());
+	}
+
+	public DayOfWeekField(FieldType type, CharSequence exp, int start, int end) {
+		super(type, exp, start, end);
+		for (int first = 1; first <= 7; first++) {
+			long weekDays = 0L;
+			for (int day = 1; day <= 31; day++) {
+				if (matches((first - 1 + day - 1) % 7 + 1)) {
+					weekDays |= 1L << day;
+				}
+			}
+			for (int length = 28; length <= 31; length++) {
+				long days = weekDays & (-1L >>> (Long.SIZE - 1 - length));
+				for (FieldPart part : parts()) {
+					days |= calendarDays(part, first, length);
+				}
+				monthDays[index(first, length)] = days;
+			}
+		}
+	}
+
+	private static int index(int firstDayOfWeek, int lengthOfMonth) {
+		return firstDayOfWeek << 2 | (lengthOfMonth - 28);
+	}
+
+	/**
+	 * Days of nL and n#k parts, L alone is sunday and part of the bit mask.
+	 */
+	private static long calendarDays(FieldPart part, int first, int length) {
+		if (NTH_SEP.equals(part.increMetaChar)) {
+			int day = 1 + (part.from - first + 7) % 7 + 7 * (part.increValue - 1);
+			return day <= length ? 1L << day : 0L;
+		} else if (LAST_MODIFIER.equals(part.metaChar)) {
+			// last day of week n of the month
+			int last = (first - 1 + length - 1) % 7 + 1;
+			return 1L << (length - (last - part.from + 7) % 7);
+		}
+		return 0L;
 	}
 
 	@Override
-	protected int mapToValue(String value) {
-		// 0 and 7 are represented as sunday
-		return "0".equals(value) ? 7 : super.mapToValue(value);
+	protected boolean allowsModifiers() {
+		return true;
+	}
+
+	@Override
+	protected int lastValue() {
+		// the last day of the week
+		return 7;
+	}
+
+	@Override
+	protected void partMetaValidation(FieldPart part) {
+		if (IGNORE.equals(part.metaChar) || LAST_MODIFIER.equals(part.metaChar)) {
+			if (part.increMetaChar != null) {
+				throw new IllegalArgumentException(String.format("Invalid increment meta character [%s] for field [%s]",
+						part.increMetaChar, type.toString()));
+			}
+			return;
+		} else if (part.metaChar == null && NTH_SEP.equals(part.increMetaChar)) {
+			if (part.from != part.to || part.increValue < 1 || part.increValue > 5) {
+				throw new IllegalArgumentException(String.format("Invalid occurrence [%s#%s], must be [1-5] for field [%s]",
+						part.from, part.increValue, type.toString()));
+			}
+			return;
+		}
+		super.partMetaValidation(part);
+	}
+
+	@Override
+	protected int mapToValue(int value, int digits) {
+		// 0 and 7 are represented as sunday, only the literal 0 like the regex parser
+		return value == 0 && digits == 1 ? 7 : value;
+	}
+
+	/**
+	 * Days of a month which fall on a day of week of this field, bit n represents day n.
+	 * 
+	 * @param firstDayOfWeek day of week of the 1st of the month, 1 (monday) to 7 (sunday)
+	 * @param lengthOfMonth
+	 * @return day bit mask
+	 */
+	public long daysOfMonth(int firstDayOfWeek, int lengthOfMonth) {
+		return monthDays[index(firstDayOfWeek, lengthOfMonth)];
 	}
 
 	protected Set<Integer> getDaysOfWeek() {
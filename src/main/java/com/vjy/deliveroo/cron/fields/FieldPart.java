@@ -1,16 +1,25 @@
 package com.vjy.deliveroo.cron.fields;
 
- class FieldPart implements Comparable<FieldPart>{
-	protected int from = -1;
-	protected int to = -1;
-	protected int increValue = -1;
-	protected String metaChar;
-	protected String increMetaChar;
-	protected boolean all;
-	
+final class FieldPart implements Comparable<FieldPart> {
+	final int from;
+	final int to;
+	final int increValue;
+	final String metaChar;
+	final String increMetaChar;
+	final boolean all;
+
+	FieldPart(int from, int to, boolean all, String metaChar, String increMetaChar, int increValue) {
+		this.from = from;
+		this.to = to;
+		this.all = all;
+		this.metaChar = metaChar;
+		this.increMetaChar = increMetaChar;
+		this.increValue = increValue;
+	}
+
 	@Override
 	public int compareTo(FieldPart part) {
 		return Integer.compare(from, part.from);
 	}
-	
+
 }
@@ -9,7 +9,9 @@ public enum FieldType {
 	HOUR(0, 23, "hour", null),
 	DAY_OF_MONTH(1, 31, "day of month", null),
 	MONTH(1, 12, "month", Arrays.asList("JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC")),
-	DAY_OF_WEEK(1, 7, "day of week", Arrays.asList("MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN"));
+	DAY_OF_WEEK(1, 7, "day of week", Arrays.asList("MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN")),
+	SECOND(0, 59, "second", null),
+	YEAR(1970, 2199, "year", null);
 
 	private final int from;
 	private final int to;
@@ -1,14 +1,117 @@
 package com.vjy.deliveroo.cron.fields;
 
+import java.util.Set;
+import java.util.function.IntConsumer;
+
+/**
+ * Field compiled to a long bit mask, bit n is set when value n is part of the field. Used for all fields but the
+ * year, whose values do not fit a long, see {@link YearField}.
+ */
 public class SimpleField extends BaseField {
 
+	// compiled once from the parts
+	private final long bits;
+	private final Set<Integer> values;
+
 	/**
 	 * Class representing time field ( minutes/hours/month ).
 	 * @param type
 	 * @param fldExp
 	 */
 	public SimpleField(FieldType type, String fldExp) {
-		super(type, fldExp);
+		this(type, fldExp, 0, fldExp.length());
+	}
+
+	/**
+	 * Time field parsed from a region of an expression.
+	 * @param type
+	 * @param exp
+	 * @param start
+	 * @param end
+	 * @throws IllegalArgumentException if the values of type do not fit a long mask
+	 */
+	public SimpleField(FieldType type, CharSequence exp, int start, int end) {
+		super(type, exp, start, end);
+		if (type.getTo() >= Long.SIZE) {
+			throw new IllegalArgumentException(String.format("Field [%s] does not fit a long mask", type));
+		}
+		this.bits = compile();
+		this.values = new BitMaskSet(bits);
+	}
+
+	/**
+	 * Expand all field parts into a bit mask, bit n represents value n.
+	 * 
+	 * @return compiled bit mask
+	 */
+	private long compile() {
+		long mask = 0L;
+		for (FieldPart fieldPart : parts()) {
+			// L, W and # depend on the month, they are evaluated by the day fields
+			if (isCalendarPart(fieldPart)) {
+				continue;
+			}
+			// for all (*), ignore (?), range (0-5) and increment (/)
+			int step = INCREMENT_SEP.equals(fieldPart.increMetaChar) ? fieldPart.increValue : 1;
+			for (int i = fieldPart.from; i <= fieldPart.to; i += step) {
+				mask |= 1L << i;
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Expanded values of this field, a read only view over the compiled bit mask.
+	 * 
+	 * @return sorted field values
+	 */
+	@Override
+	protected Set<Integer> build() {
+		return values;
+	}
+
+	@Override
+	public boolean matches(int value) {
+		return value >= 0 && value < Long.SIZE && (bits & (1L << value)) != 0;
+	}
+
+	@Override
+	public int nextSetAtOrAfter(int value) {
+		if (value >= Long.SIZE) {
+			return -1;
+		}
+		long mask = bits & (-1L << Math.max(value, 0));
+		return mask == 0 ? -1 : Long.numberOfTrailingZeros(mask);
+	}
+
+	@Override
+	public int previousSetAtOrBefore(int value) {
+		if (value < 0) {
+			return -1;
+		}
+		long mask = bits & (-1L >>> (Long.SIZE - 1 - Math.min(value, Long.SIZE - 1)));
+		return mask == 0 ? -1 : Long.SIZE - 1 - Long.numberOfLeadingZeros(mask);
+	}
+
+	@Override
+	public int cardinality() {
+		return Long.bitCount(bits);
+	}
+
+	@Override
+	public void forEach(IntConsumer action) {
+		long mask = bits;
+		while (mask != 0) {
+			action.accept(Long.numberOfTrailingZeros(mask));
+			mask &= mask - 1;
+		}
+	}
+
+	/**
+	 * @return compiled bit mask, bit n is set when value n is part of the field
+	 */
+	public long getBits() {
+		return bits;
 	}
 
 }
@@ -0,0 +1,117 @@
+package com.vjy.deliveroo.cron.fields;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Year field, the years do not fit a long mask so they are kept in a multi word bit set where bit n is year
+ * <code>type.getFrom() + n</code>, and unlike {@link SimpleField} there is no single mask of the values. A field of
+ * every year ('*') matches years outside of the range as well.
+ */
+public class YearField extends BaseField {
+
+	private final long[] words;
+	private final boolean everyYear;
+	private final Set<Integer> years;
+
+	public YearField(FieldType type, String fldExp) {
+		this(type, fldExp, 0, fldExp.length());
+	}
+
+	public YearField(FieldType type, CharSequence exp, int start, int end) {
+		super(type, exp, start, end);
+		words = new long[(type.getTo() - type.getFrom()) / Long.SIZE + 1];
+		boolean every = false;
+		for (FieldPart part : parts()) {
+			int step = INCREMENT_SEP.equals(part.increMetaChar) ? part.increValue : 1;
+			for (int year = part.from; year <= part.to; year += step) {
+				int bit = year - type.getFrom();
+				words[bit >>> 6] |= 1L << bit;
+			}
+			every |= part.all && step == 1;
+		}
+		everyYear = every;
+		Set<Integer> values = new TreeSet<>();
+		forEach(values::add);
+		years = Collections.unmodifiableSet(values);
+	}
+
+	/**
+	 * @return true if the field does not restrict the year
+	 */
+	public boolean isEveryYear() {
+		return everyYear;
+	}
+
+	@Override
+	public boolean matches(int value) {
+		if (everyYear) {
+			return true;
+		}
+		int bit = value - type.getFrom();
+		return bit >= 0 && value <= type.getTo() && (words[bit >>> 6] & (1L << bit)) != 0;
+	}
+
+	@Override
+	public int nextSetAtOrAfter(int value) {
+		int bit = Math.max(value - type.getFrom(), 0);
+		if (value > type.getTo()) {
+			return -1;
+		}
+		for (int i = bit >>> 6; i < words.length; i++) {
+			long word = words[i] & (i == bit >>> 6 ? -1L << bit : -1L);
+			if (word != 0) {
+				return type.getFrom() + (i << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int previousSetAtOrBefore(int value) {
+		int bit = Math.min(value, type.getTo()) - type.getFrom();
+		if (bit < 0) {
+			return -1;
+		}
+		for (int i = bit >>> 6; i >= 0; i--) {
+			long word = words[i] & (i == bit >>> 6 ? -1L >>> (Long.SIZE - 1 - (bit & 63)) : -1L);
+			if (word != 0) {
+				return type.getFrom() + (i << 6) + Long.SIZE - 1 - Long.numberOfLeadingZeros(word);
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public int cardinality() {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		return cardinality;
+	}
+
+	@Override
+	public void forEach(IntConsumer action) {
+		for (int i = 0; i < words.length; i++) {
+			long word = words[i];
+			while (word != 0) {
+				action.accept(type.getFrom() + (i << 6) + Long.numberOfTrailingZeros(word));
+				word &= word - 1;
+			}
+		}
+	}
+
+	@Override
+	protected Set<Integer> build() {
+		return years;
+	}
+
+	@Override
+	public Set<Integer> get() {
+		return years;
+	}
+
+}
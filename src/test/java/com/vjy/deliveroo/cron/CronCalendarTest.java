@@ -0,0 +1,36 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+public class CronCalendarTest {
+
+	@Test
+	public void month_info() throws Exception {
+		// table years and the computed ones around them
+		for (int year = CronCalendar.TABLE_FIRST_YEAR - 400; year <= CronCalendar.TABLE_LAST_YEAR + 400; year++) {
+			for (int month = 1; month <= 12; month++) {
+				LocalDate first = LocalDate.of(year, month, 1);
+				int monthInfo = CronCalendar.monthInfo(year, month);
+				assertEquals(first.getDayOfWeek().getValue(), CronCalendar.firstDayOfWeek(monthInfo));
+				assertEquals(first.lengthOfMonth(), CronCalendar.monthLength(monthInfo));
+			}
+		}
+	}
+
+	@Test
+	public void epoch_day_round_trip() throws Exception {
+		for (long epochDay = -200_000; epochDay <= 200_000; epochDay += 7) {
+			LocalDate date = LocalDate.ofEpochDay(epochDay);
+			int packed = CronCalendar.toDate(epochDay);
+			assertEquals(date.getYear(), CronCalendar.year(packed));
+			assertEquals(date.getMonthValue(), CronCalendar.month(packed));
+			assertEquals(date.getDayOfMonth(), CronCalendar.day(packed));
+			assertEquals(epochDay, CronCalendar.toEpochDay(date.getYear(), date.getMonthValue(), date.getDayOfMonth()));
+			assertEquals(date.getDayOfWeek().getValue(), CronCalendar.dayOfWeek(epochDay));
+		}
+	}
+}
@@ -2,14 +2,29 @@ package com.vjy.deliveroo.cron;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
-
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 import org.junit.After;
 import org.junit.Before;
@@ -19,9 +34,12 @@ import com.vjy.deliveroo.cron.fields.DayOfMonthField;
 import com.vjy.deliveroo.cron.fields.DayOfWeekField;
 import com.vjy.deliveroo.cron.fields.FieldType;
 import com.vjy.deliveroo.cron.fields.SimpleField;
+import com.vjy.deliveroo.cron.fields.YearField;
 
 public class CronExpressionTest {
 
+	private static final ZoneId UTC = ZoneOffset.UTC;
+
 	@Before
 	public void setUp() {
 	}
@@ -66,16 +84,122 @@ public class CronExpressionTest {
 		assertEquals(new HashSet<>(Arrays.asList(1, 3, 5, 7)), field.get());
 	}
 
+	@Test
+	public void field_bitmask() throws Exception {
+		SimpleField field = new SimpleField(FieldType.MINUTE, "5,20-30/5,59");
+		assertEquals((1L << 5) | (1L << 20) | (1L << 25) | (1L << 30) | (1L << 59), field.getBits());
+		assertEquals(5, field.cardinality());
+		assertTrue(field.matches(25));
+		assertFalse(field.matches(26));
+		assertFalse(field.matches(-1));
+		assertFalse(field.matches(64));
+	}
+
+	@Test
+	public void field_next_set_at_or_after() throws Exception {
+		SimpleField field = new SimpleField(FieldType.HOUR, "3,7,19");
+		assertEquals(3, field.nextSetAtOrAfter(0));
+		assertEquals(7, field.nextSetAtOrAfter(7));
+		assertEquals(19, field.nextSetAtOrAfter(8));
+		assertEquals(-1, field.nextSetAtOrAfter(20));
+		assertEquals(-1, field.nextSetAtOrAfter(64));
+	}
+
+	@Test
+	public void field_for_each_in_ascending_order() throws Exception {
+		DayOfWeekField field = new DayOfWeekField(FieldType.DAY_OF_WEEK, "SUN,MON-WED");
+		List<Integer> values = new ArrayList<>();
+		field.forEach(values::add);
+		assertEquals(Arrays.asList(1, 2, 3, 7), values);
+		assertEquals(values, new ArrayList<>(field.get()));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
+	public void give_error_if_increment_is_zero() throws Exception {
+		new SimpleField(FieldType.MINUTE, "*/0");
+	}
+
+	@Test
+	public void parse_names_case_insensitive() throws Exception {
+		SimpleField field = new SimpleField(FieldType.MONTH, "jan-Mar,DEC");
+		assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 12)), field.get());
+	}
+
+	@Test
+	public void parse_region_of_expression() throws Exception {
+		SimpleField field = new SimpleField(FieldType.HOUR, "0 9-17/4 *", 2, 8);
+		assertEquals(new HashSet<>(Arrays.asList(9, 13, 17)), field.get());
+	}
+
+	@Test
+	public void day_of_week_zero_is_sunday() throws Exception {
+		assertEquals(new HashSet<>(Arrays.asList(5, 7)), new DayOfWeekField(FieldType.DAY_OF_WEEK, "0,5").get());
+		assertEquals(new HashSet<>(Arrays.asList(1, 2, 3, 7)),
+				new DayOfWeekField(FieldType.DAY_OF_WEEK, "0,1-3").get());
+		try {
+			new DayOfWeekField(FieldType.DAY_OF_WEEK, "00");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid interval [0-0], must be [1-7] for field [DAY_OF_WEEK]", e.getMessage());
+			return;
+		}
+		fail("expected IllegalArgumentException");
+	}
+
+	@Test
+	public void parse_error_message() throws Exception {
+		try {
+			new SimpleField(FieldType.MINUTE, "1,5-,7");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid cron input '5-' for field [MINUTE]", e.getMessage());
+			return;
+		}
+		fail("expected IllegalArgumentException");
+	}
+
+	@Test
+	public void parse_error_message_modifier_in_minute() throws Exception {
+		for (String exp : new String[] { "L", "MON#2" }) {
+			try {
+				new SimpleField(FieldType.MINUTE, exp);
+				fail("expected IllegalArgumentException");
+			} catch (IllegalArgumentException e) {
+				assertEquals("Invalid cron input '" + exp + "' for field [MINUTE]", e.getMessage());
+			}
+		}
+	}
+
+	@Test
+	public void parse_error_message_ignore_in_list() throws Exception {
+		try {
+			new DayOfWeekField(FieldType.DAY_OF_WEEK, "?,,1");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid cron input '?' for field [DAY_OF_WEEK]", e.getMessage());
+			return;
+		}
+		fail("expected IllegalArgumentException");
+	}
+
+	@Test
+	public void expression_with_extra_whitespace() throws Exception {
+		CronExpression cronExpr = new CronExpression(" 0\t0  * * 7 /usr/bin/find ");
+		assertEquals(new CronExpression("0 0 * * 7 /usr/bin/find").describe(), cronExpr.describe());
+	}
+
+	@Test
 	public void ignore_field_in_day_of_week() throws Exception {
 		DayOfWeekField field = new DayOfWeekField(FieldType.DAY_OF_WEEK, "?");
-		assertFalse(field.get().isEmpty());
+		assertEquals(new TreeSet<>(Arrays.asList(1, 2, 3, 4, 5, 6, 7)), field.get());
 	}
 
-	@Test(expected = IllegalArgumentException.class)
+	@Test
 	public void ignore_field_in_day_of_month() throws Exception {
 		DayOfMonthField field = new DayOfMonthField(FieldType.DAY_OF_MONTH, "?");
-		assertFalse(field.get().isEmpty());
+		assertEquals(31, field.get().size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void ignore_field_in_minute() throws Exception {
+		new CronExpression("? * * * * /usr/bin/find");
 	}
 
 	@Test(expected = IllegalArgumentException.class)
@@ -83,6 +207,44 @@ public class CronExpressionTest {
 		new CronExpression("* 3 *");
 	}
 
+	@Test(expected = IllegalArgumentException.class)
+	public void give_error_if_too_many_fields() throws Exception {
+		new CronExpression("0 0 0 1 1 * 2020 /usr/bin/find -name");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void check_year_out_of_range() throws Exception {
+		new CronExpression("0 0 0 1 1 * 2200 /usr/bin/find");
+	}
+
+	@Test
+	public void year_field_values() throws Exception {
+		YearField field = new CronExpression("0 0 0 1 1 * 2030-2040/5 /usr/bin/find").getYearField();
+		List<Integer> values = new ArrayList<>();
+		field.forEach(values::add);
+		assertEquals(Arrays.asList(2030, 2035, 2040), values);
+		assertEquals(3, field.cardinality());
+		assertTrue(field.matches(2035));
+		assertFalse(field.matches(2036));
+		assertEquals(2040, field.nextSetAtOrAfter(2036));
+		assertEquals(2035, field.previousSetAtOrBefore(2039));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void year_does_not_fit_simple_field() throws Exception {
+		new SimpleField(FieldType.YEAR, "2030");
+	}
+
+	@Test
+	public void describe_seconds_and_year() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/20 0 12 1 1 * 2030-2032 /usr/bin/find");
+		assertEquals("second         0 20 40\n" + "minute         0\n" + "hour           12\n"
+				+ "day of month   1\n" + "month          1\n" + "day of week    1 2 3 4 5 6 7\n"
+				+ "year           2030 2031 2032\n" + "command        /usr/bin/find", cronExpr.describe());
+		assertEquals(new CronExpression("0 12 1 1 * /usr/bin/find").describe(),
+				new CronExpression("0 0 12 1 1 * /usr/bin/find").describe().substring("second         0\n".length()));
+	}
+
 	@Test(expected = IllegalArgumentException.class)
 	public void give_error_if_minute_field_ignored() throws Exception {
 		new SimpleField(FieldType.MINUTE, "?");
@@ -488,4 +650,509 @@ public class CronExpressionTest {
 		new CronExpression("* 5-1 * * * /usr/bin/find");
 	}
 
+	@Test
+	public void of_shares_cached_schedule() throws Exception {
+		CronExpressionCache cache = CronExpression.cache();
+		long misses = cache.getMissCount();
+		long hits = cache.getHitCount();
+
+		CronExpression first = CronExpression.of("1 2 3 4 5 /usr/bin/first");
+		assertSame(first, CronExpression.of("1 2 3 4 5 /usr/bin/first"));
+		CronExpression second = CronExpression.of(" 1  2 3 4 5\t/usr/bin/second");
+
+		assertEquals(misses + 1, cache.getMissCount());
+		assertEquals(hits + 2, cache.getHitCount());
+		assertEquals(" 1  2 3 4 5\t/usr/bin/second", second.toString());
+		assertEquals(new CronExpression("1 2 3 4 5 /usr/bin/second").describe(), second.describe());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void of_invalid_expression() throws Exception {
+		CronExpression.of("1 2 3 4 /usr/bin/find");
+	}
+
+	@Test
+	public void cache_evicts_oldest() throws Exception {
+		CronExpressionCache cache = new CronExpressionCache(2);
+		cache.get("1 * * * *", k -> new CronExpression(k + " /usr/bin/find"));
+		cache.get("2 * * * *", k -> new CronExpression(k + " /usr/bin/find"));
+		cache.get("3 * * * *", k -> new CronExpression(k + " /usr/bin/find"));
+		assertEquals(2, cache.size());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(3, cache.getMissCount());
+	}
+
+	private static long millis(String dateTime, ZoneId zone) {
+		return LocalDateTime.parse(dateTime).atZone(zone).toInstant().toEpochMilli();
+	}
+
+	@Test
+	public void next_execution_every_minute() throws Exception {
+		CronExpression cronExpr = new CronExpression("* * * * * /usr/bin/find");
+		assertEquals(millis("2020-01-01T10:01", UTC), cronExpr.nextExecution(millis("2020-01-01T10:00", UTC), UTC));
+		assertEquals(millis("2020-01-01T10:01", UTC),
+				cronExpr.nextExecution(millis("2020-01-01T10:00:59.999", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_rolls_over_fields() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/15 0 1,15 * * /usr/bin/find");
+		assertEquals(millis("2020-01-15T00:00", UTC), cronExpr.nextExecution(millis("2020-01-01T00:45", UTC), UTC));
+		assertEquals(millis("2020-02-01T00:00", UTC), cronExpr.nextExecution(millis("2020-01-15T00:45", UTC), UTC));
+		// both day fields restricted, the 1st, the 15th or a weekday
+		cronExpr = new CronExpression("*/15 0 1,15 * 1-5 /usr/bin/find");
+		// 2020-01-02 is a thursday, 2020-02-15 a saturday and 2020-02-16 a sunday
+		assertEquals(millis("2020-01-02T00:00", UTC), cronExpr.nextExecution(millis("2020-01-01T00:45", UTC), UTC));
+		assertEquals(millis("2020-02-15T00:00", UTC), cronExpr.nextExecution(millis("2020-02-14T00:45", UTC), UTC));
+		assertEquals(millis("2020-02-17T00:00", UTC), cronExpr.nextExecution(millis("2020-02-15T00:45", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_either_day() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 13 * FRI /usr/bin/find");
+		// 2020-03-06 is a friday, 2020-04-13 a monday
+		assertEquals(millis("2020-03-06T00:00", UTC), cronExpr.nextExecution(millis("2020-03-01T00:00", UTC), UTC));
+		assertEquals(millis("2020-04-13T00:00", UTC), cronExpr.nextExecution(millis("2020-04-10T00:00", UTC), UTC));
+		assertEquals(millis("2020-04-10T00:00", UTC),
+				cronExpr.previousExecution(millis("2020-04-13T00:00", UTC), UTC));
+		// a field starting with '*' or '?' intersects, 2020-03-13 is an odd friday
+		cronExpr = new CronExpression("0 0 */2 * FRI /usr/bin/find");
+		assertEquals(millis("2020-03-13T00:00", UTC), cronExpr.nextExecution(millis("2020-03-01T00:00", UTC), UTC));
+		cronExpr = new CronExpression("0 0 13 * ? /usr/bin/find");
+		assertEquals(millis("2020-04-13T00:00", UTC), cronExpr.nextExecution(millis("2020-03-13T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_leap_day() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 29 2 * /usr/bin/find");
+		assertEquals(millis("2024-02-29T00:00", UTC), cronExpr.nextExecution(millis("2020-02-29T00:00", UTC), UTC));
+		assertEquals(millis("2104-02-29T00:00", UTC), cronExpr.nextExecution(millis("2096-02-29T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_never() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 31 2 * /usr/bin/find");
+		assertEquals(CronExpression.NO_EXECUTION, cronExpr.nextExecution(millis("2020-01-01T00:00", UTC), UTC));
+		assertFalse(cronExpr.nextExecution(Instant.EPOCH, UTC).isPresent());
+	}
+
+	@Test
+	public void next_execution_last_day_of_month() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 L * ? /usr/bin/find");
+		assertEquals(millis("2020-02-29T00:00", UTC), cronExpr.nextExecution(millis("2020-02-01T00:00", UTC), UTC));
+		assertEquals(millis("2021-02-28T00:00", UTC), cronExpr.nextExecution(millis("2021-02-01T00:00", UTC), UTC));
+		assertEquals(millis("2021-01-31T00:00", UTC),
+				cronExpr.previousExecution(millis("2021-02-28T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_nearest_weekday() throws Exception {
+		// 2020-02-15 is a saturday, 2020-03-15 a sunday
+		CronExpression cronExpr = new CronExpression("0 0 15W * * /usr/bin/find");
+		assertEquals(millis("2020-02-14T00:00", UTC), cronExpr.nextExecution(millis("2020-02-01T00:00", UTC), UTC));
+		assertEquals(millis("2020-03-16T00:00", UTC), cronExpr.nextExecution(millis("2020-03-01T00:00", UTC), UTC));
+		// 2020-02-01 is a saturday, the nearest weekday in the month is monday the 3rd
+		cronExpr = new CronExpression("0 0 1W * * /usr/bin/find");
+		assertEquals(millis("2020-02-03T00:00", UTC), cronExpr.nextExecution(millis("2020-01-31T00:00", UTC), UTC));
+		// 2020-05-31 is a sunday
+		cronExpr = new CronExpression("0 0 LW * * /usr/bin/find");
+		assertEquals(millis("2020-05-29T00:00", UTC), cronExpr.nextExecution(millis("2020-05-01T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_nth_day_of_week() throws Exception {
+		// 2020-01-01 is a wednesday
+		CronExpression cronExpr = new CronExpression("0 0 ? * 5#3 /usr/bin/find");
+		assertEquals(millis("2020-01-17T00:00", UTC), cronExpr.nextExecution(millis("2020-01-01T00:00", UTC), UTC));
+		// february 2021 has four mondays
+		cronExpr = new CronExpression("0 0 * * MON#5 /usr/bin/find");
+		assertEquals(millis("2021-03-29T00:00", UTC), cronExpr.nextExecution(millis("2021-02-01T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_last_day_of_week() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 * * 5L /usr/bin/find");
+		assertEquals(millis("2020-01-31T00:00", UTC), cronExpr.nextExecution(millis("2020-01-01T00:00", UTC), UTC));
+		assertEquals(millis("2020-02-28T00:00", UTC), cronExpr.nextExecution(millis("2020-01-31T00:00", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_last_day_of_week_alone() throws Exception {
+		// 2021-03-01 is a monday, L alone is every sunday
+		CronExpression cronExpr = new CronExpression("0 0 * * L /usr/bin/find");
+		assertEquals(millis("2021-03-07T00:00", UTC), cronExpr.nextExecution(millis("2021-03-01T00:00", UTC), UTC));
+		assertEquals(millis("2021-03-14T00:00", UTC), cronExpr.nextExecution(millis("2021-03-07T00:00", UTC), UTC));
+		assertEquals(new CronExpression("0 0 * * 7 /usr/bin/find").describe(), cronExpr.describe());
+	}
+
+	@Test
+	public void check_dayOfMonth_last_of_weekday() throws Exception {
+		try {
+			new CronExpression("0 0 5L * * /usr/bin/find");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid meta character [L] for field [DAY_OF_MONTH]", e.getMessage());
+			return;
+		}
+		fail("expected IllegalArgumentException");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void check_dayOfWeek_invalid_occurrence() throws Exception {
+		new CronExpression("0 0 * * 5#6 /usr/bin/find");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void check_dayOfMonth_weekday_of_range() throws Exception {
+		new CronExpression("0 0 1-15W * * /usr/bin/find");
+	}
+
+	@Test
+	public void next_execution_seconds() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/10 * * * * * /usr/bin/find");
+		assertEquals(millis("2020-01-01T10:00:10", UTC),
+				cronExpr.nextExecution(millis("2020-01-01T10:00:00", UTC), UTC));
+		assertEquals(millis("2020-01-01T10:01:00", UTC),
+				cronExpr.nextExecution(millis("2020-01-01T10:00:55", UTC), UTC));
+		assertEquals(millis("2020-01-01T09:59:50", UTC),
+				cronExpr.previousExecution(millis("2020-01-01T10:00:00", UTC), UTC));
+		cronExpr = new CronExpression("30 0 12 * * * /usr/bin/find");
+		assertEquals(millis("2020-01-02T12:00:30", UTC),
+				cronExpr.nextExecution(millis("2020-01-01T12:00:30", UTC), UTC));
+	}
+
+	@Test
+	public void next_execution_year() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 0 29 2 * 2025-2030 /usr/bin/find");
+		assertEquals(millis("2028-02-29T00:00", UTC), cronExpr.nextExecution(millis("2020-03-01T00:00", UTC), UTC));
+		assertEquals(CronExpression.NO_EXECUTION, cronExpr.nextExecution(millis("2028-02-29T00:00", UTC), UTC));
+		assertEquals(CronExpression.NO_EXECUTION, cronExpr.previousExecution(millis("2028-02-29T00:00", UTC), UTC));
+		assertEquals(1, cronExpr.countFireTimesBetween(Instant.EPOCH, Instant.parse("2199-12-31T00:00:00Z"), UTC));
+	}
+
+	@Test
+	public void count_fire_times_with_seconds() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/15 0 * * * * /usr/bin/find");
+		assertEquals(96, cronExpr.countFireTimesBetween(Instant.parse("2020-01-01T00:00:00Z"),
+				Instant.parse("2020-01-02T00:00:00Z"), UTC));
+	}
+
+	@Test
+	public void next_execution_in_zone() throws Exception {
+		ZoneId zone = ZoneId.of("Europe/London");
+		CronExpression cronExpr = new CronExpression("30 1 * * * /usr/bin/find");
+		// 01:30 does not exist on 2020-03-29, it fires at 02:30 summer time
+		assertEquals(millis("2020-03-29T02:30", zone), cronExpr.nextExecution(millis("2020-03-28T12:00", zone), zone));
+		// 01:30 exists twice on 2020-10-25, it fires once
+		long first = cronExpr.nextExecution(millis("2020-10-24T12:00", zone), zone);
+		assertEquals(ZonedDateTime.of(2020, 10, 25, 1, 30, 0, 0, zone).withEarlierOffsetAtOverlap().toInstant(),
+				Instant.ofEpochMilli(first));
+		assertEquals(millis("2020-10-26T01:30", zone), cronExpr.nextExecution(first, zone));
+	}
+
+
+	@Test
+	public void fire_times_are_lazy_next_executions() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 9-17/4 * * MON-FRI /usr/bin/find");
+		long from = millis("2020-01-01T00:00", UTC);
+		List<Instant> times = cronExpr.fireTimes(Instant.ofEpochMilli(from), UTC).limit(10)
+				.collect(Collectors.toList());
+
+		long next = from;
+		for (Instant time : times) {
+			next = cronExpr.nextExecution(next, UTC);
+			assertEquals(next, time.toEpochMilli());
+		}
+		assertEquals(10, times.size());
+	}
+
+	@Test
+	public void fire_times_window_in_parallel() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/1 * * * * /usr/bin/find");
+		Instant from = Instant.ofEpochMilli(millis("2020-01-01T00:00", UTC));
+		Instant to = from.plus(Duration.ofDays(30));
+
+		List<Instant> sequential = cronExpr.fireTimes(from, to, UTC).collect(Collectors.toList());
+		List<Instant> parallel = cronExpr.fireTimes(from, to, UTC).parallel().collect(Collectors.toList());
+
+		assertEquals(30 * 24 * 60, sequential.size());
+		assertEquals(from.plusSeconds(60), sequential.get(0));
+		assertEquals(to, sequential.get(sequential.size() - 1));
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void fire_times_with_seconds_in_parallel() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/10 * * * * * /usr/bin/find");
+		long from = millis("2020-01-01T00:00", UTC);
+		long to = from + Duration.ofHours(6).toMillis();
+
+		FireTimeSpliterator spliterator = new FireTimeSpliterator(cronExpr.inZone(UTC), from, to);
+		long estimate = spliterator.estimateSize();
+		List<Instant> parallel = StreamSupport.stream(spliterator, true).collect(Collectors.toList());
+		List<Instant> sequential = cronExpr.fireTimes(Instant.ofEpochMilli(from), Instant.ofEpochMilli(to), UTC)
+				.collect(Collectors.toList());
+
+		assertEquals(6 * 360, sequential.size());
+		assertTrue(estimate >= sequential.size());
+		assertEquals(sequential, parallel);
+	}
+
+	@Test
+	public void fire_times_unbounded_in_parallel() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 * * * * /usr/bin/find");
+		Instant from = Instant.ofEpochMilli(millis("2020-01-01T00:00", UTC));
+		List<Instant> parallel = cronExpr.fireTimes(from, UTC).parallel().limit(1000).collect(Collectors.toList());
+		assertEquals(from.plusSeconds(3600 * 1000), parallel.get(999));
+		assertEquals(1000, parallel.stream().distinct().count());
+	}
+
+	@Test
+	public void fire_times_of_expression_never_firing() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 30 2 * /usr/bin/find");
+		assertEquals(0, cronExpr.fireTimes(Instant.EPOCH, UTC).count());
+	}
+
+	@Test
+	public void previous_execution() throws Exception {
+		CronExpression cronExpr = new CronExpression("*/15 0 1,15 * 1-5 /usr/bin/find");
+		// 2020-04-01 is a wednesday, 2020-03-15 is a sunday
+		assertEquals(millis("2020-03-31T00:45", UTC), cronExpr.previousExecution(millis("2020-04-01T00:00", UTC), UTC));
+		assertEquals(millis("2020-03-15T00:45", UTC), cronExpr.previousExecution(millis("2020-03-16T00:00", UTC), UTC));
+		assertEquals(millis("2020-04-01T00:00", UTC),
+				cronExpr.previousExecution(millis("2020-04-01T00:00:00.001", UTC), UTC));
+	}
+
+	@Test
+	public void previous_execution_yearly() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 0 29 2 * /usr/bin/find");
+		assertEquals(millis("2096-02-29T00:00", UTC), cronExpr.previousExecution(millis("2104-02-29T00:00", UTC), UTC));
+		assertEquals(Instant.ofEpochMilli(millis("2020-02-29T00:00", UTC)),
+				cronExpr.previousExecution(Instant.ofEpochMilli(millis("2021-01-01T00:00", UTC)), UTC).get());
+	}
+
+	@Test
+	public void previous_execution_in_zone() throws Exception {
+		ZoneId zone = ZoneId.of("Europe/London");
+		CronExpression cronExpr = new CronExpression("30 1 * * * /usr/bin/find");
+		ZonedDateTime overlap = ZonedDateTime.of(2020, 10, 25, 1, 30, 0, 0, zone);
+		// 01:30 fired once with the earlier offset, also when asked from within the repeated hour
+		assertEquals(overlap.withEarlierOffsetAtOverlap().toInstant().toEpochMilli(),
+				cronExpr.previousExecution(overlap.withLaterOffsetAtOverlap().toInstant().toEpochMilli(), zone));
+		assertEquals(millis("2020-03-29T02:30", zone), cronExpr.previousExecution(millis("2020-03-29T12:00", zone), zone));
+	}
+
+	@Test
+	public void fire_times_between_latest_first() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 */6 * * * /usr/bin/find");
+		List<Instant> times = cronExpr.fireTimesBetween(Instant.ofEpochMilli(millis("2020-01-01T00:00", UTC)),
+				Instant.ofEpochMilli(millis("2020-01-02T00:00", UTC)), UTC).collect(Collectors.toList());
+		assertEquals(Arrays.asList("2020-01-02T00:00:00Z", "2020-01-01T18:00:00Z", "2020-01-01T12:00:00Z",
+				"2020-01-01T06:00:00Z"), times.stream().map(Instant::toString).collect(Collectors.toList()));
+	}
+
+	@Test
+	public void count_fire_times_between() throws Exception {
+		Instant from = Instant.ofEpochMilli(millis("2020-01-01T00:00", UTC));
+		Instant to = Instant.ofEpochMilli(millis("2021-01-01T00:00", UTC));
+		assertEquals(366 * 24 * 60, new CronExpression("* * * * * /usr/bin/find").countFireTimesBetween(from, to, UTC));
+		// 2020 has 262 weekdays
+		assertEquals(262 * 9 * 4,
+				new CronExpression("*/15 9-17 * * MON-FRI /usr/bin/find").countFireTimesBetween(from, to, UTC));
+		assertEquals(1, new CronExpression("0 0 29 2 * /usr/bin/find").countFireTimesBetween(from, to, UTC));
+
+		ZoneId zone = ZoneId.of("Europe/London");
+		// the hour skipped by the spring gap fires with the next hour, the repeated autumn hour fires once
+		assertEquals(366 * 24 - 1, new CronExpression("0 * * * * /usr/bin/find").countFireTimesBetween(from, to, zone));
+	}
+
+	@Test
+	public void overlap_policy_in_zone() throws Exception {
+		ZoneId zone = ZoneId.of("Europe/London");
+		CronExpression cronExpr = new CronExpression("30 1 * * * /usr/bin/find");
+		ZonedDateTime overlap = ZonedDateTime.of(2020, 10, 25, 1, 30, 0, 0, zone);
+		long earlier = overlap.withEarlierOffsetAtOverlap().toInstant().toEpochMilli();
+		long later = overlap.withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+		long start = millis("2020-10-25T00:00", zone);
+
+		ZonedCronExpression once = cronExpr.inZone(zone);
+		assertEquals(OverlapPolicy.FIRE_ONCE, once.getPolicy());
+		assertEquals(earlier, once.nextExecution(start));
+		assertEquals(millis("2020-10-26T01:30", zone), once.nextExecution(earlier));
+
+		ZonedCronExpression twice = cronExpr.inZone(zone, OverlapPolicy.FIRE_TWICE);
+		assertEquals(earlier, twice.nextExecution(start));
+		assertEquals(later, twice.nextExecution(earlier));
+		assertEquals(earlier, twice.previousExecution(later));
+		assertEquals(1, cronExpr.fireTimes(Instant.ofEpochMilli(start), Instant.ofEpochMilli(start + 86_400_000L), zone)
+				.count());
+	}
+
+	@Test
+	public void fires_at_minute_in_zone() throws Exception {
+		ZoneId zone = ZoneId.of("America/New_York");
+		ZonedCronExpression cronExpr = new CronExpression("30 2 * * * /usr/bin/find").inZone(zone);
+		// 02:30 is skipped on 2020-03-08 and fires an hour later at 03:30 EDT
+		assertTrue(cronExpr.firesAt(millis("2020-03-08T03:30", zone) / 60_000L));
+		assertFalse(cronExpr.firesAt(millis("2020-03-08T03:31", zone) / 60_000L));
+		assertTrue(cronExpr.firesAt(millis("2020-03-09T02:30", zone) / 60_000L));
+		assertFalse(cronExpr.firesAt(millis("2020-03-09T02:30", zone) / 60_000L - 1));
+	}
+
+	private static void assertSameSchedule(CronExpression expected, CronExpression actual) {
+		assertEquals(expected.toString(), actual.toString());
+		assertEquals(expected.describe(), actual.describe());
+		assertEquals(expected.isDaysUnion(), actual.isDaysUnion());
+		assertEquals(expected.isMinuteResolution(), actual.isMinuteResolution());
+		long from = millis("2020-01-01T00:00", UTC);
+		for (int i = 0; i < 50; i++) {
+			long next = expected.nextExecution(from, UTC);
+			assertEquals(next, actual.nextExecution(from, UTC));
+			if (next == CronExpression.NO_EXECUTION) {
+				break;
+			}
+			from = next;
+		}
+	}
+
+	@Test
+	public void with_field() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 3 * * * /usr/bin/find");
+		CronExpression edited = cronExpr.withField(FieldType.HOUR, "4");
+		assertSameSchedule(new CronExpression("0 4 * * * /usr/bin/find"), edited);
+		assertSame(cronExpr.getMinuteField(), edited.getMinuteField());
+		assertSame(cronExpr.getDayOfMonthField(), edited.getDayOfMonthField());
+		assertSame(cronExpr.getDayOfWeekField(), edited.getDayOfWeekField());
+		assertEquals("0 3 * * * /usr/bin/find", cronExpr.toString());
+
+		// restricting both days makes them a union, like the edited text
+		CronExpression union = new CronExpression("0 0 1,15 * * cmd").withField(FieldType.DAY_OF_WEEK, "MON");
+		assertSameSchedule(new CronExpression("0 0 1,15 * MON cmd"), union);
+		assertTrue(union.isDaysUnion());
+		assertSameSchedule(new CronExpression("0 0 ? * MON cmd"), union.withField(FieldType.DAY_OF_MONTH, "?"));
+		assertSameSchedule(new CronExpression("0 3 L * * /usr/bin/find"),
+				cronExpr.withField(FieldType.DAY_OF_MONTH, "L"));
+	}
+
+	@Test
+	public void with_field_adds_second_and_year() throws Exception {
+		CronExpression cronExpr = new CronExpression("  0 3 * * *   /usr/bin/find");
+		assertSameSchedule(new CronExpression("  */10 0 3 * * *   /usr/bin/find"),
+				cronExpr.withField(FieldType.SECOND, "*/10"));
+		assertSameSchedule(new CronExpression("  0 0 3 * * * 2030   /usr/bin/find"),
+				cronExpr.withField(FieldType.YEAR, "2030"));
+		assertSameSchedule(new CronExpression("30 0 3 * * * 2030 cmd"),
+				new CronExpression("30 0 3 * * * cmd").withField(FieldType.YEAR, "2030"));
+		assertSameSchedule(new CronExpression("30 0 3 * * * 2031-2032 cmd"),
+				new CronExpression("30 0 3 * * * 2030 cmd").withField(FieldType.YEAR, "2031-2032"));
+		assertSameSchedule(new CronExpression("15 0 3 * * * 2030 cmd"),
+				new CronExpression("30 0 3 * * * 2030 cmd").withField(FieldType.SECOND, "15"));
+	}
+
+	@Test
+	public void with_field_rejects_invalid_field() throws Exception {
+		CronExpression cronExpr = new CronExpression("0 3 * * * /usr/bin/find");
+		for (String field : new String[] { "", "1 2", "24", "L", null }) {
+			try {
+				cronExpr.withField(FieldType.HOUR, field);
+				fail("Expected invalid hour [" + field + "]");
+			} catch (IllegalArgumentException e) {
+				assertTrue(e.getMessage(), e.getMessage().contains("HOUR") || e.getMessage().contains("hour"));
+			}
+		}
+	}
+
+	/**
+	 * Description as rendered before {@link CronExpression#describeTo(Appendable)}, the values joined by reducing
+	 * their strings.
+	 */
+	private static String legacyDescription(CronExpression exp) {
+		int parts = exp.toString().trim().split("\\s+").length;
+		StringBuffer result = new StringBuffer("");
+		if (parts > 6) {
+			result.append(legacyLine(FieldType.SECOND.getIdentifier(), exp.getSecondField().get())).append("\n");
+		}
+		result.append(legacyLine(FieldType.MINUTE.getIdentifier(), exp.getMinuteField().get())).append("\n");
+		result.append(legacyLine(FieldType.HOUR.getIdentifier(), exp.getHourField().get())).append("\n");
+		result.append(legacyLine(FieldType.DAY_OF_MONTH.getIdentifier(), exp.getDayOfMonthField().get())).append("\n");
+		result.append(legacyLine(FieldType.MONTH.getIdentifier(), exp.getMonthField().get())).append("\n");
+		result.append(legacyLine(FieldType.DAY_OF_WEEK.getIdentifier(), exp.getDayOfWeekField().get())).append("\n");
+		if (parts > 7) {
+			result.append(legacyLine(FieldType.YEAR.getIdentifier(), exp.getYearField().get())).append("\n");
+		}
+		StringBuffer command = new StringBuffer("command");
+		while (command.length() <= 14) {
+			command.append(' ');
+		}
+		return result.append(command).append(exp.getCommand()).toString();
+	}
+
+	private static StringBuffer legacyLine(String identifier, Set<Integer> values) {
+		StringBuffer result = new StringBuffer(identifier);
+		while (result.length() <= 14) {
+			result.append(' ');
+		}
+		return result.append(values.stream().map(t -> Integer.toString(t)).reduce((s1, s2) -> s1 + ' ' + s2).get());
+	}
+
+	private static List<CronExpression> describedExpressions() {
+		List<CronExpression> expressions = new ArrayList<>();
+		String[] fields = { "*", "0", "*/5", "1-5", "0,15,30,45", "10-20/3", "?" };
+		String[] days = { "*", "MON-FRI", "SUN", "1,7", "*/2" };
+		String[] daysOfMonth = { "*", "1", "*/5", "1-5", "1,15,31", "10-20/3", "?" };
+		String[] months = { "*", "JAN", "3-9", "*/4" };
+		for (int i = 0; i < 400; i++) {
+			String minute = fields[i % 6];
+			String hour = fields[(i / 6) % 4];
+			String dayOfMonth = daysOfMonth[(i / 3) % 7];
+			String month = months[i % 4];
+			String dayOfWeek = days[(i / 7) % 5];
+			String exp = minute + " " + hour + " " + dayOfMonth + " " + month + " " + dayOfWeek + " /usr/bin/cmd" + i;
+			expressions.add(new CronExpression(exp));
+			expressions.add(new CronExpression(fields[(i / 2) % 6] + " " + exp));
+			expressions.add(new CronExpression(fields[(i / 5) % 6] + " " + minute + " " + hour + " " + dayOfMonth
+					+ " " + month + " " + dayOfWeek + " 2030-2040/" + (i % 5 + 1) + " cmd"));
+		}
+		return expressions;
+	}
+
+	@Test
+	public void describe_matches_legacy_rendering() throws Exception {
+		for (CronExpression exp : describedExpressions()) {
+			assertEquals(legacyDescription(exp), exp.describe());
+			StringBuilder out = new StringBuilder();
+			exp.describeTo(out);
+			assertEquals(legacyDescription(exp), out.toString());
+		}
+	}
+
+	@Test
+	public void describe_calendar_dependent_days() throws Exception {
+		assertEquals("minute         0\n" + "hour           0\n" + "day of month   \n" + "month          1\n"
+				+ "day of week    1 2 3 4 5 6 7\n" + "command        cmd",
+				new CronExpression("0 0 L 1 * cmd").describe());
+	}
+
+	@Test
+	public void describe_all() throws Exception {
+		List<CronExpression> expressions = describedExpressions();
+		StringBuilder expected = new StringBuilder();
+		for (CronExpression exp : expressions) {
+			if (expected.length() > 0) {
+				expected.append('\n');
+			}
+			expected.append(legacyDescription(exp)).append('\n');
+		}
+
+		StringBuilder out = new StringBuilder();
+		CronExpression.describeAll(expressions, out);
+		assertEquals(expected.toString(), out.toString());
+
+		Path file = Files.createTempFile("cron", ".txt");
+		try {
+			CronExpression.describeAll(expressions, file);
+			assertEquals(expected.toString(), new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+		} finally {
+			Files.delete(file);
+		}
+	}
 }
@@ -0,0 +1,215 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+public class CronIndexTest {
+
+	private static final ZoneId UTC = ZoneOffset.UTC;
+
+	private static long minute(String dateTime, ZoneId zone) {
+		return LocalDateTime.parse(dateTime).atZone(zone).toEpochSecond() / 60;
+	}
+
+	@Test
+	public void firing_at() throws Exception {
+		CronIndex index = new CronIndex(UTC);
+		int all = index.add(new CronExpression("* * * * * /usr/bin/all"));
+		int quarter = index.add(new CronExpression("*/15 * * * * /usr/bin/quarter"));
+		int weekday = index.add(new CronExpression("0 9 * * MON-FRI /usr/bin/weekday"));
+		index.add(new CronExpression("0 9 * * SAT,SUN /usr/bin/weekend"));
+
+		// 2020-01-06 is a monday
+		assertArrayEquals(new int[] { all, quarter, weekday }, index.firingAt(minute("2020-01-06T09:00", UTC)));
+		assertArrayEquals(new int[] { all, quarter }, index.firingAt(minute("2020-01-06T10:30", UTC)));
+		assertArrayEquals(new int[] { all }, index.firingAt(minute("2020-01-06T10:31", UTC)));
+	}
+
+	@Test
+	public void firing_at_last_day_of_month() throws Exception {
+		CronIndex index = new CronIndex(UTC);
+		int last = index.add(new CronExpression("0 0 L * * /usr/bin/last"));
+		int third = index.add(new CronExpression("0 0 * * FRI#3 /usr/bin/third"));
+		assertArrayEquals(new int[] { last }, index.firingAt(minute("2020-02-29T00:00", UTC)));
+		assertArrayEquals(new int[0], index.firingAt(minute("2020-02-28T00:00", UTC)));
+		assertArrayEquals(new int[] { third }, index.firingAt(minute("2020-02-21T00:00", UTC)));
+		index.remove(last);
+		assertArrayEquals(new int[0], index.firingAt(minute("2020-02-29T00:00", UTC)));
+	}
+
+	@Test
+	public void firing_at_with_seconds_and_year() throws Exception {
+		CronIndex index = new CronIndex(UTC);
+		int seconds = index.add(new CronExpression("*/10 0 0 * * * /usr/bin/seconds"));
+		int year = index.add(new CronExpression("0 0 0 1 1 * 2021 /usr/bin/year"));
+		assertArrayEquals(new int[] { seconds, year }, index.firingAt(minute("2021-01-01T00:00", UTC)));
+		assertArrayEquals(new int[] { seconds }, index.firingAt(minute("2022-01-01T00:00", UTC)));
+	}
+
+	@Test
+	public void firing_at_in_zone() throws Exception {
+		ZoneId zone = ZoneId.of("Asia/Kolkata");
+		CronIndex index = new CronIndex(zone);
+		int id = index.add(new CronExpression("30 9 * * * /usr/bin/find"));
+		assertArrayEquals(new int[] { id }, index.firingAt(minute("2020-01-06T09:30", zone)));
+		assertArrayEquals(new int[0], index.firingAt(minute("2020-01-06T09:30", UTC)));
+	}
+
+	@Test
+	public void firing_at_daylight_saving_transitions() throws Exception {
+		ZoneId london = ZoneId.of("Europe/London");
+		CronIndex index = new CronIndex(london);
+		int gap = index.add(new CronExpression("30 1 * * * /usr/bin/gap"));
+		int all = index.add(new CronExpression("* * * * * /usr/bin/all"));
+		int half = index.add(new CronExpression("30 * * * * /usr/bin/half"));
+
+		// 01:00-01:59 is skipped on 2021-03-28, 01:30 fires shifted at 02:30 BST, ids are reported once
+		assertArrayEquals(new int[] { gap, all, half }, index.firingAt(minute("2021-03-28T01:30", UTC)));
+		assertArrayEquals(new int[] { all }, index.firingAt(minute("2021-03-28T01:31", UTC)));
+
+		// 01:00-01:59 is repeated on 2021-10-31, only the first pass in BST fires
+		assertArrayEquals(new int[] { gap, all, half }, index.firingAt(minute("2021-10-31T00:30", UTC)));
+		for (String time : new String[] { "01:00", "01:15", "01:30", "01:45", "01:59" }) {
+			assertArrayEquals(time, new int[0], index.firingAt(minute("2021-10-31T" + time, UTC)));
+		}
+		assertArrayEquals(new int[] { all }, index.firingAt(minute("2021-10-31T02:00", UTC)));
+		assertArrayEquals(new int[] { all, half }, index.firingAt(minute("2021-10-31T02:30", UTC)));
+	}
+
+	@Test
+	public void firing_at_agrees_with_zoned_expression_around_transitions() throws Exception {
+		String[] expressions = { "* * * * * a", "30 1 * * * b", "*/15 1-2 * * * c", "0 2 * * SUN d", "59 0 * * * e",
+				"0 3 * * * f", "15 1 28 3 * g", "0 1 L * * h", "0 */20 0-2 * * * 2021 i", "0,30 * * * 1 j",
+				"*/30 30 1 * * * k" };
+		String[][] transitions = { { "Europe/London", "2021-03-28T01:00", "2021-10-31T01:00" },
+				{ "America/New_York", "2021-03-14T07:00", "2021-11-07T06:00" } };
+		for (String[] transition : transitions) {
+			ZoneId zone = ZoneId.of(transition[0]);
+			CronIndex index = new CronIndex(zone);
+			List<ZonedCronExpression> zoned = new ArrayList<>();
+			for (String exp : expressions) {
+				CronExpression cron = new CronExpression(exp);
+				index.add(cron);
+				zoned.add(cron.inZone(zone));
+			}
+			for (int t = 1; t < transition.length; t++) {
+				long at = minute(transition[t], UTC);
+				for (long minute = at - 180; minute < at + 180; minute++) {
+					List<Integer> expected = new ArrayList<>();
+					for (int id = 0; id < zoned.size(); id++) {
+						if (zoned.get(id).firesAt(minute)) {
+							expected.add(id);
+						}
+					}
+					assertArrayEquals(zone + " " + minute, expected.stream().mapToInt(Integer::intValue).toArray(),
+							index.firingAt(minute));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void remove_and_reuse_id() throws Exception {
+		CronIndex index = new CronIndex(UTC);
+		int first = index.add(new CronExpression("* * * * * /usr/bin/first"));
+		int second = index.add(new CronExpression("* * * * * /usr/bin/second"));
+		assertEquals("/usr/bin/first", index.remove(first).getCommand());
+		assertNull(index.get(first));
+		assertNull(index.remove(first));
+		assertArrayEquals(new int[] { second }, index.firingAt(0));
+
+		CronExpression third = new CronExpression("0 0 * * * /usr/bin/third");
+		assertEquals(first, index.add(third));
+		assertSame(third, index.get(first));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void matches_next_execution_for_many_schedules() throws Exception {
+		String[] exps = { "* * * * *", "*/7 3-5 * * *", "0 0 1 * MON", "15 10 13 * 5", "0 12 * 2 SAT,SUN",
+				"5,10 */4 1-7 * 1", "0 0 * * 0", "*/13 */5 */3 */2 */3" };
+		CronIndex index = new CronIndex(UTC);
+		List<CronExpression> expressions = new ArrayList<>();
+		for (int i = 0; i < 10_000; i++) {
+			CronExpression exp = new CronExpression(exps[i % exps.length] + " /usr/bin/" + i);
+			expressions.add(exp);
+			index.add(exp);
+		}
+
+		long from = minute("2020-01-01T00:00", UTC);
+		for (long minute = from; minute < from + 3 * 24 * 60; minute += 7) {
+			List<Integer> expected = new ArrayList<>();
+			for (int id = 0; id < expressions.size(); id++) {
+				if (expressions.get(id).nextExecution((minute - 1) * 60_000, UTC) == minute * 60_000) {
+					expected.add(id);
+				}
+			}
+			int[] ids = index.firingAt(minute);
+			assertEquals(expected.size(), ids.length);
+			for (int i = 0; i < ids.length; i++) {
+				assertEquals((int) expected.get(i), ids[i]);
+			}
+		}
+	}
+
+	@Test
+	public void replace_patches_changed_fields() throws Exception {
+		CronIndex index = new CronIndex(UTC);
+		CronExpression nightly = new CronExpression("0 3 * * * /usr/bin/nightly");
+		int id = index.add(nightly);
+		int other = index.add(new CronExpression("0 4 * * MON /usr/bin/other"));
+		long monday = minute("2020-01-06T04:00", UTC);
+
+		assertSame(nightly, index.replace(id, nightly.withField(FieldType.HOUR, "4")));
+		assertArrayEquals(new int[] { id, other }, index.firingAt(monday));
+		assertArrayEquals(new int[0], index.firingAt(minute("2020-01-06T03:00", UTC)));
+
+		// union and year restricted schedules are checked after the intersection
+		index.replace(id, index.get(id).withField(FieldType.DAY_OF_MONTH, "1"));
+		index.replace(id, index.get(id).withField(FieldType.DAY_OF_WEEK, "TUE"));
+		assertArrayEquals(new int[] { other }, index.firingAt(monday));
+		assertArrayEquals(new int[] { id }, index.firingAt(minute("2020-01-07T04:00", UTC)));
+		assertArrayEquals(new int[] { id }, index.firingAt(minute("2020-02-01T04:00", UTC)));
+		index.replace(id, new CronExpression("0 0 4 * * * 2021 /usr/bin/nightly"));
+		assertArrayEquals(new int[] { other }, index.firingAt(monday));
+		assertArrayEquals(new int[] { id }, index.firingAt(minute("2021-01-07T04:00", UTC)));
+		index.replace(id, new CronExpression("0 4 * * MON /usr/bin/nightly"));
+		assertArrayEquals(new int[] { id, other }, index.firingAt(monday));
+		assertArrayEquals(new int[0], index.firingAt(minute("2021-01-07T04:00", UTC)));
+
+		assertNull(index.replace(7, nightly));
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	public void replace_matches_rebuilt_index() throws Exception {
+		String[] expressions = { "0 3 * * *", "*/15 9-17 * * MON-FRI", "0 0 1,15 * *", "30 2 L * *", "0 12 * 6 SUN" };
+		String[] hours = { "4", "*", "0-6", "*/2", "23" };
+		CronIndex patched = new CronIndex(UTC);
+		for (String exp : expressions) {
+			patched.add(new CronExpression(exp + " cmd"));
+		}
+		CronIndex rebuilt = new CronIndex(UTC);
+		for (int id = 0; id < expressions.length; id++) {
+			CronExpression edited = patched.get(id).withField(FieldType.HOUR, hours[id]);
+			patched.replace(id, edited);
+			rebuilt.add(edited);
+		}
+		long start = minute("2020-01-01T00:00", UTC);
+		for (long minute = start; minute < start + 40 * CronCalendar.MINUTES_PER_DAY; minute += 7) {
+			assertArrayEquals(rebuilt.firingAt(minute), patched.firingAt(minute));
+		}
+	}
+}
@@ -0,0 +1,135 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CronMatcherTest {
+
+	private static final ZoneId UTC = ZoneOffset.UTC;
+
+	private static long minute(String dateTime, ZoneId zone) {
+		return LocalDateTime.parse(dateTime).atZone(zone).toEpochSecond() / 60;
+	}
+
+	private static List<Integer> firingAt(CronMatcher matcher, long minute) {
+		List<Integer> ids = new ArrayList<>();
+		matcher.forEachFiringAt(minute, ids::add);
+		return ids;
+	}
+
+	private static String randomField(Random random, int from, int to) {
+		switch (random.nextInt(4)) {
+		case 0:
+			return "*";
+		case 1:
+			return "*/" + (1 + random.nextInt(4));
+		case 2:
+			int start = from + random.nextInt(to - from + 1);
+			return start + "-" + (start + random.nextInt(to - start + 1));
+		default:
+			return Integer.toString(from + random.nextInt(to - from + 1));
+		}
+	}
+
+	@Test
+	public void firing_at_either_day() throws Exception {
+		List<CronExpression> expressions = Arrays.asList(new CronExpression("0 0 13 * FRI /usr/bin/either"),
+				new CronExpression("0 0 */2 * FRI /usr/bin/both"));
+		for (boolean vectorized : new boolean[] { true, false }) {
+			CronMatcher matcher = new CronMatcher(UTC, expressions, vectorized);
+			// 2020-03-06 is a friday, 2020-03-13 a friday and 2020-04-13 a monday
+			assertEquals(Arrays.asList(0), firingAt(matcher, minute("2020-03-06T00:00", UTC)));
+			assertEquals(Arrays.asList(0, 1), firingAt(matcher, minute("2020-03-13T00:00", UTC)));
+			assertEquals(Arrays.asList(0), firingAt(matcher, minute("2020-04-13T00:00", UTC)));
+			assertEquals(Arrays.asList(), firingAt(matcher, minute("2020-04-14T00:00", UTC)));
+		}
+	}
+
+	@Test
+	public void firing_at() throws Exception {
+		List<CronExpression> expressions = Arrays.asList(new CronExpression("* * * * * /usr/bin/all"),
+				new CronExpression("*/15 * * * * /usr/bin/quarter"), new CronExpression("0 9 * * MON-FRI /usr/bin/weekday"),
+				new CronExpression("59 23 31 12 SUN /usr/bin/sunday"));
+		for (boolean vectorized : new boolean[] { true, false }) {
+			CronMatcher matcher = new CronMatcher(UTC, expressions, vectorized);
+			assertEquals(vectorized && CronMatcher.isVectorSupported(), matcher.isVectorized());
+			assertEquals(4, matcher.size());
+			// 2020-01-06 is a monday, 2023-12-31 a sunday
+			assertEquals(Arrays.asList(0, 1, 2), firingAt(matcher, minute("2020-01-06T09:00", UTC)));
+			assertEquals(Arrays.asList(0), firingAt(matcher, minute("2020-01-06T09:01", UTC)));
+			assertEquals(Arrays.asList(0, 3), firingAt(matcher, minute("2023-12-31T23:59", UTC)));
+			assertEquals(2, matcher.countMatching(59, 23, 31, 12, 7));
+		}
+	}
+
+	@Test
+	public void vector_and_scalar_kernels_agree() throws Exception {
+		Random random = new Random(42);
+		List<CronExpression> expressions = new ArrayList<>();
+		for (int i = 0; i < 1003; i++) {
+			expressions.add(new CronExpression(randomField(random, 0, 59) + " " + randomField(random, 0, 23) + " "
+					+ randomField(random, 1, 31) + " " + randomField(random, 1, 12) + " " + randomField(random, 1, 7)
+					+ " /usr/bin/find"));
+		}
+		CronMatcher vector = new CronMatcher(UTC, expressions);
+		CronMatcher scalar = new CronMatcher(UTC, expressions, false);
+		assertFalse(scalar.isVectorized());
+		long start = minute("2020-01-01T00:00", UTC);
+		for (long minute = start; minute < start + 3 * 24 * 60; minute += 7) {
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < expressions.size(); i++) {
+				if (expressions.get(i).inZone(UTC).firesAt(minute)) {
+					expected.add(i);
+				}
+			}
+			assertEquals(expected, firingAt(vector, minute));
+			assertEquals(expected, firingAt(scalar, minute));
+		}
+	}
+
+	@Test
+	public void firing_at_daylight_saving_transitions() throws Exception {
+		List<CronExpression> expressions = new ArrayList<>();
+		for (String exp : new String[] { "* * * * * a", "30 1 * * * b", "*/15 1-2 * * * c", "0 2 * * SUN d",
+				"59 0 * * * e", "0 3 * * * f", "15 1 28 3 * g", "0,30 * * * 1 h", "30 1 13 * SUN i" }) {
+			expressions.add(new CronExpression(exp));
+		}
+		String[][] transitions = { { "Europe/London", "2021-03-28T01:00", "2021-10-31T01:00" },
+				{ "America/New_York", "2021-03-14T07:00", "2021-11-07T06:00" } };
+		for (String[] transition : transitions) {
+			ZoneId zone = ZoneId.of(transition[0]);
+			for (boolean vectorized : new boolean[] { true, false }) {
+				CronMatcher matcher = new CronMatcher(zone, expressions, vectorized);
+				for (int t = 1; t < transition.length; t++) {
+					long at = minute(transition[t], UTC);
+					for (long minute = at - 180; minute < at + 180; minute++) {
+						List<Integer> expected = new ArrayList<>();
+						for (int i = 0; i < expressions.size(); i++) {
+							if (expressions.get(i).inZone(zone).firesAt(minute)) {
+								expected.add(i);
+							}
+						}
+						assertEquals(zone + " " + minute, expected, firingAt(matcher, minute));
+					}
+				}
+			}
+		}
+
+		// 01:30 is skipped in London on 2021-03-28 and fires at 02:30 BST, it is repeated on 2021-10-31 and fires in BST
+		CronMatcher london = new CronMatcher(ZoneId.of("Europe/London"),
+				Arrays.asList(new CronExpression("30 1 * * * /usr/bin/find")));
+		assertEquals(Arrays.asList(0), firingAt(london, minute("2021-03-28T01:30", UTC)));
+		assertEquals(Arrays.asList(0), firingAt(london, minute("2021-10-31T00:30", UTC)));
+		assertEquals(Arrays.asList(), firingAt(london, minute("2021-10-31T01:30", UTC)));
+	}
+}
@@ -0,0 +1,129 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+public class CronRegistryTest {
+
+	private static final CronExpression HOURLY = CronExpression.of("0 * * * * hourly");
+	private static final CronExpression DAILY = CronExpression.of("0 0 * * * daily");
+
+	@Test
+	public void put_get_remove() throws Exception {
+		CronRegistry registry = new CronRegistry(4);
+		assertNull(registry.put(1, HOURLY));
+		assertNull(registry.put(-7, DAILY));
+		assertSame(HOURLY, registry.put(1, DAILY));
+		assertEquals(2, registry.size());
+		assertSame(DAILY, registry.get(1));
+		assertSame(DAILY, registry.get(-7));
+		assertNull(registry.get(2));
+
+		assertSame(DAILY, registry.remove(-7));
+		assertNull(registry.remove(-7));
+		assertEquals(1, registry.size());
+		assertNull(registry.get(-7));
+	}
+
+	@Test
+	public void snapshot_is_not_affected_by_writes() throws Exception {
+		CronRegistry registry = new CronRegistry();
+		for (long id = 0; id < 1000; id++) {
+			registry.put(id, HOURLY);
+		}
+		CronRegistry.Snapshot snapshot = registry.snapshot();
+		long version = snapshot.version();
+		registry.put(5, DAILY);
+		registry.remove(6);
+		registry.put(1000, DAILY);
+
+		assertEquals(1000, snapshot.size());
+		assertSame(HOURLY, snapshot.get(5));
+		assertSame(HOURLY, snapshot.get(6));
+		assertNull(snapshot.get(1000));
+		List<Long> ids = new ArrayList<>();
+		snapshot.forEach((id, expression) -> {
+			assertSame(HOURLY, expression);
+			ids.add(id);
+		});
+		assertEquals(1000, ids.size());
+		assertEquals(version + 3, registry.snapshot().version());
+		assertEquals(1000, registry.size());
+	}
+
+	@Test
+	public void concurrent_writers() throws Exception {
+		CronRegistry registry = new CronRegistry(8);
+		int writers = 8;
+		int perWriter = 2000;
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicReference<String> failure = new AtomicReference<>();
+		Thread dispatcher = new Thread(() -> {
+			long version = -1;
+			while (!done.get()) {
+				CronRegistry.Snapshot snapshot = registry.snapshot();
+				int[] count = new int[1];
+				snapshot.forEach((id, expression) -> count[0]++);
+				if (count[0] != snapshot.size() || snapshot.version() < version) {
+					failure.set(count[0] + " schedules in snapshot of size " + snapshot.size());
+				}
+				version = snapshot.version();
+			}
+		});
+		dispatcher.start();
+		Thread[] threads = new Thread[writers];
+		for (int w = 0; w < writers; w++) {
+			long first = (long) w * perWriter;
+			threads[w] = new Thread(() -> {
+				for (long id = first; id < first + perWriter; id++) {
+					registry.put(id, HOURLY);
+					registry.put(id, DAILY);
+					if (id % 2 == 0) {
+						registry.remove(id);
+					}
+				}
+			});
+			threads[w].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		done.set(true);
+		dispatcher.join();
+
+		assertNull(failure.get());
+		assertEquals(writers * perWriter / 2, registry.size());
+		for (long id = 0; id < writers * perWriter; id++) {
+			assertSame(id % 2 == 0 ? null : DAILY, registry.get(id));
+		}
+		assertEquals(writers * perWriter * 5L / 2, registry.snapshot().version());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void null_expression() throws Exception {
+		new CronRegistry().put(1, null);
+	}
+
+	@Test
+	public void with_field() throws Exception {
+		CronRegistry registry = new CronRegistry();
+		registry.put(1, HOURLY);
+		CronRegistry.Snapshot before = registry.snapshot();
+		CronExpression edited = registry.withField(1, FieldType.MINUTE, "30");
+		assertEquals("30 * * * * hourly", edited.toString());
+		assertSame(edited, registry.get(1));
+		assertSame(HOURLY, before.get(1));
+		assertNull(registry.withField(2, FieldType.MINUTE, "30"));
+		assertEquals(1, registry.size());
+	}
+}
@@ -0,0 +1,221 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class CronSchedulerTest {
+
+	private static final ZoneId UTC = ZoneOffset.UTC;
+
+	private static long minute(String dateTime) {
+		return LocalDateTime.parse(dateTime).atZone(UTC).toEpochSecond() / 60;
+	}
+
+	@Test
+	public void fires_every_minute() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, start);
+		AtomicInteger runs = new AtomicInteger();
+		scheduler.schedule(new CronExpression("* * * * * /usr/bin/find"), runs::incrementAndGet);
+
+		scheduler.advanceTo(start);
+		assertEquals(0, runs.get());
+		scheduler.advanceTo(start + 90);
+		assertEquals(90, runs.get());
+		assertEquals(1, scheduler.size());
+	}
+
+	@Test
+	public void fires_at_execution_times() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, start);
+		List<Long> fired = new ArrayList<>();
+		long[] now = { start };
+		scheduler.schedule(new CronExpression("30 2,23 * * * /usr/bin/find"), () -> fired.add(now[0]));
+
+		// minute by minute across the hour and day cascades
+		for (; now[0] < minute("2020-01-03T00:00"); now[0]++) {
+			scheduler.advanceTo(now[0]);
+		}
+		assertEquals(Arrays.asList(minute("2020-01-01T02:30"), minute("2020-01-01T23:30"),
+				minute("2020-01-02T02:30"), minute("2020-01-02T23:30")), fired);
+	}
+
+	@Test
+	public void fires_years_ahead() throws Exception {
+		long start = minute("2021-01-01T00:00");
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, start);
+		AtomicInteger runs = new AtomicInteger();
+		ScheduledJob job = scheduler.schedule(new CronExpression("0 0 29 2 * /usr/bin/find"), runs::incrementAndGet);
+
+		long leapDay = minute("2024-02-29T00:00");
+		assertEquals(leapDay * 60_000L, job.getNextExecution());
+		scheduler.advanceTo(leapDay - 1);
+		assertEquals(0, runs.get());
+		scheduler.advanceTo(leapDay);
+		assertEquals(1, runs.get());
+		assertEquals(minute("2028-02-29T00:00") * 60_000L, job.getNextExecution());
+	}
+
+	@Test
+	public void cancel() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, start);
+		AtomicInteger first = new AtomicInteger();
+		AtomicInteger second = new AtomicInteger();
+		AtomicInteger third = new AtomicInteger();
+		CronExpression hourly = new CronExpression("0 * * * * /usr/bin/find");
+		scheduler.schedule(hourly, first::incrementAndGet);
+		ScheduledJob job = scheduler.schedule(hourly, second::incrementAndGet);
+		scheduler.schedule(hourly, third::incrementAndGet);
+
+		scheduler.advanceTo(start + 60);
+		assertTrue(job.cancel());
+		assertFalse(job.cancel());
+		assertTrue(job.isCancelled());
+		assertEquals(CronExpression.NO_EXECUTION, job.getNextExecution());
+		assertEquals(2, scheduler.size());
+
+		scheduler.advanceTo(start + 180);
+		assertEquals(3, first.get());
+		assertEquals(1, second.get());
+		assertEquals(3, third.get());
+	}
+
+	@Test
+	public void cancel_while_firing() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, start);
+		AtomicInteger runs = new AtomicInteger();
+		ScheduledJob[] job = new ScheduledJob[1];
+		job[0] = scheduler.schedule(new CronExpression("* * * * * /usr/bin/find"), () -> {
+			runs.incrementAndGet();
+			job[0].cancel();
+		});
+
+		scheduler.advanceTo(start + 10);
+		assertEquals(1, runs.get());
+		assertEquals(0, scheduler.size());
+	}
+
+	@Test
+	public void rejected_firing_is_skipped() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		AtomicInteger runs = new AtomicInteger();
+		CronScheduler scheduler = new CronScheduler(UTC, task -> {
+			if (runs.incrementAndGet() == 1) {
+				throw new RejectedExecutionException();
+			}
+			task.run();
+		}, start);
+		AtomicInteger executed = new AtomicInteger();
+		scheduler.schedule(new CronExpression("* * * * * /usr/bin/find"), executed::incrementAndGet);
+
+		scheduler.advanceTo(start + 3);
+		assertEquals(3, runs.get());
+		assertEquals(2, executed.get());
+	}
+
+	@Test
+	public void never_firing_expression() throws Exception {
+		CronScheduler scheduler = new CronScheduler(UTC, Runnable::run, minute("2020-01-01T00:00"));
+		ScheduledJob job = scheduler.schedule(new CronExpression("0 0 30 2 * /usr/bin/find"), () -> {
+		});
+		assertFalse(job.isActive());
+		assertFalse(job.cancel());
+		assertEquals(0, scheduler.size());
+	}
+
+	@Test
+	public void skip_while_running() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		List<Runnable> started = new ArrayList<>();
+		CronScheduler scheduler = new CronScheduler(UTC, started::add, start);
+		AtomicInteger runs = new AtomicInteger();
+		ScheduledJob job = scheduler.schedule(new CronExpression("* * * * * /usr/bin/find"), runs::incrementAndGet,
+				ConcurrencyPolicy.SKIP);
+
+		scheduler.advanceTo(start + 3);
+		assertEquals(1, started.size());
+		assertEquals(1, job.getRunning());
+		started.get(0).run();
+		assertEquals(0, job.getRunning());
+		scheduler.advanceTo(start + 4);
+		assertEquals(2, started.size());
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	public void queue_while_running() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		List<Runnable> started = new ArrayList<>();
+		CronScheduler scheduler = new CronScheduler(UTC, started::add, start);
+		AtomicInteger runs = new AtomicInteger();
+		ScheduledJob job = scheduler.schedule(new CronExpression("* * * * * /usr/bin/find").inZone(UTC),
+				runs::incrementAndGet, ConcurrencyPolicy.QUEUE, 2);
+
+		scheduler.advanceTo(start + 5);
+		assertEquals(2, started.size());
+		assertEquals(3, job.getQueued());
+		// each finished run starts a queued firing
+		started.get(0).run();
+		assertEquals(3, started.size());
+		assertEquals(2, job.getQueued());
+		assertEquals(2, job.getRunning());
+
+		job.cancel();
+		assertEquals(0, job.getQueued());
+		started.get(1).run();
+		started.get(2).run();
+		assertEquals(3, started.size());
+		assertEquals(0, job.getRunning());
+		assertEquals(3, runs.get());
+	}
+
+	@Test
+	public void concurrent_runs() throws Exception {
+		long start = minute("2020-01-01T00:00");
+		List<Runnable> started = new ArrayList<>();
+		CronScheduler scheduler = new CronScheduler(UTC, started::add, start);
+		scheduler.schedule(new CronExpression("* * * * * /usr/bin/find"), () -> {
+		}, ConcurrencyPolicy.CONCURRENT);
+		scheduler.advanceTo(start + 5);
+		assertEquals(5, started.size());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalid_concurrency_limit() throws Exception {
+		new CronScheduler(UTC, Runnable::run, 0).schedule(new CronExpression("* * * * * /usr/bin/find").inZone(UTC),
+				() -> {
+				}, ConcurrencyPolicy.QUEUE, 0);
+	}
+
+	@Test
+	public void virtual_thread_executor() throws Exception {
+		ExecutorService executor = CronScheduler.newVirtualThreadExecutor();
+		try {
+			CountDownLatch done = new CountDownLatch(100);
+			for (int i = 0; i < 100; i++) {
+				executor.execute(done::countDown);
+			}
+			assertTrue(done.await(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+	}
+}
@@ -0,0 +1,194 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+public class CronSnapshotTest {
+
+	private static final List<CronExpression> EXPRESSIONS = Arrays.asList(
+			new CronExpression("*/15 0 1,15 * 1-5 /usr/bin/find"), new CronExpression("59 23 31 12 SUN /usr/bin/yearly"),
+			new CronExpression("0 9-17 * * MON-FRI /usr/bin/office"));
+
+	@Test
+	public void encode_and_read_in_place() throws Exception {
+		CronSnapshot snapshot = CronSnapshot.wrap(CronSnapshot.encode(EXPRESSIONS));
+		assertEquals(3, snapshot.size());
+		for (int i = 0; i < EXPRESSIONS.size(); i++) {
+			CronExpression expression = EXPRESSIONS.get(i);
+			assertEquals(expression.getMinuteField().getBits(), snapshot.getBits(i, FieldType.MINUTE));
+			assertEquals(expression.getHourField().getBits(), snapshot.getBits(i, FieldType.HOUR));
+			assertEquals(expression.getDayOfMonthField().getBits(), snapshot.getBits(i, FieldType.DAY_OF_MONTH));
+			assertEquals(expression.getMonthField().getBits(), snapshot.getBits(i, FieldType.MONTH));
+			assertEquals(expression.getDayOfWeekField().getBits(), snapshot.getBits(i, FieldType.DAY_OF_WEEK));
+			assertEquals(expression.getCommand(), snapshot.getCommand(i));
+			assertEquals(expression.describe().toString(), snapshot.get(i).describe().toString());
+		}
+		assertEquals("0,15,30,45 0 1,15 * 1-5 /usr/bin/find", snapshot.get(0).toString());
+	}
+
+	@Test
+	public void firing_at() throws Exception {
+		CronSnapshot snapshot = CronSnapshot.wrap(CronSnapshot.encode(EXPRESSIONS));
+		// 2023-12-31 is a sunday
+		long minute = LocalDateTime.parse("2023-12-31T23:59").toEpochSecond(ZoneOffset.UTC) / 60;
+		List<Integer> firing = new ArrayList<>();
+		snapshot.forEachFiringAt(minute, ZoneOffset.UTC, firing::add);
+		assertEquals(Arrays.asList(1), firing);
+		// 2020-01-15 is a wednesday
+		firing.clear();
+		snapshot.forEachFiringAt(LocalDateTime.parse("2020-01-15T00:30").toEpochSecond(ZoneOffset.UTC) / 60,
+				ZoneOffset.UTC, firing::add);
+		assertEquals(Arrays.asList(0), firing);
+	}
+
+	@Test
+	public void day_fields_union() throws Exception {
+		List<CronExpression> expressions = Arrays.asList(new CronExpression("0 0 13 * FRI /usr/bin/either"),
+				new CronExpression("0 0 */2 * FRI /usr/bin/both"));
+		CronSnapshot snapshot = CronSnapshot.wrap(CronSnapshot.encode(expressions));
+		// 2020-03-06 is a friday, 2020-04-13 a monday
+		assertTrue(snapshot.matches(0, 0, 0, 6, 3, 5));
+		assertTrue(snapshot.matches(0, 0, 0, 13, 4, 1));
+		assertFalse(snapshot.matches(1, 0, 0, 6, 3, 5));
+		assertTrue(snapshot.matches(1, 0, 0, 13, 3, 5));
+		// the intersection of a step and a list has no list form, it is kept by the decoded expression
+		long friday = LocalDateTime.parse("2020-03-06T00:00").toEpochSecond(ZoneOffset.UTC) / 60 / 1440;
+		assertTrue(snapshot.get(0).matchesDay(friday));
+		assertFalse(snapshot.get(1).matchesDay(friday));
+	}
+
+	@Test
+	public void map_file() throws Exception {
+		Path file = Files.createTempFile("cron", ".snapshot");
+		try {
+			CronSnapshot.write(EXPRESSIONS, file);
+			CronSnapshot snapshot = CronSnapshot.map(file);
+			assertEquals(3, snapshot.size());
+			assertEquals("/usr/bin/office", snapshot.getCommand(2));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void firing_at_daylight_saving_transitions_after_round_trip() throws Exception {
+		List<CronExpression> expressions = new ArrayList<>();
+		for (String exp : new String[] { "* * * * * a", "30 1 * * * b", "*/15 1-2 * * * c", "0 2 * * SUN d",
+				"59 0 * * * e", "0 3 * * * f", "15 1 28 3 * g", "0,30 * * * 1 h", "30 1 13 * SUN i" }) {
+			expressions.add(new CronExpression(exp));
+		}
+		String[][] transitions = { { "Europe/London", "2021-03-28T01:00", "2021-10-31T01:00" },
+				{ "America/New_York", "2021-03-14T07:00", "2021-11-07T06:00" } };
+		Path file = Files.createTempFile("cron", ".snapshot");
+		try {
+			CronSnapshot.write(expressions, file);
+			CronSnapshot snapshot = CronSnapshot.map(file);
+			List<CronExpression> loaded = new ArrayList<>();
+			for (int i = 0; i < snapshot.size(); i++) {
+				loaded.add(snapshot.get(i));
+			}
+			for (String[] transition : transitions) {
+				ZoneId zone = ZoneId.of(transition[0]);
+				CronMatcher matcher = new CronMatcher(zone, loaded);
+				for (int t = 1; t < transition.length; t++) {
+					long at = LocalDateTime.parse(transition[t]).toEpochSecond(ZoneOffset.UTC) / 60;
+					for (long minute = at - 180; minute < at + 180; minute++) {
+						List<Integer> expected = new ArrayList<>();
+						for (int i = 0; i < expressions.size(); i++) {
+							if (expressions.get(i).inZone(zone).firesAt(minute)) {
+								expected.add(i);
+							}
+						}
+						List<Integer> firing = new ArrayList<>();
+						snapshot.forEachFiringAt(minute, zone, firing::add);
+						assertEquals(zone + " " + minute, expected, firing);
+						firing.clear();
+						matcher.forEachFiringAt(minute, firing::add);
+						assertEquals(zone + " " + minute, expected, firing);
+					}
+				}
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void wrap_at_buffer_position() throws Exception {
+		ByteBuffer encoded = CronSnapshot.encode(EXPRESSIONS);
+		ByteBuffer buffer = ByteBuffer.allocateDirect(encoded.remaining() + 5);
+		buffer.position(5);
+		buffer.put(encoded);
+		buffer.position(5);
+		CronSnapshot snapshot = CronSnapshot.wrap(buffer);
+		assertEquals("/usr/bin/yearly", snapshot.getCommand(1));
+		assertArrayEquals(new long[] { 1L << 59, 1L << 7 },
+				new long[] { snapshot.getBits(1, FieldType.MINUTE), snapshot.getBits(1, FieldType.DAY_OF_WEEK) });
+	}
+
+	@Test
+	public void wrap_invalid_snapshot() throws Exception {
+		try {
+			CronSnapshot.wrap(ByteBuffer.wrap("0 0 * * * /usr/bin/find".getBytes()));
+			fail("Invalid cron snapshot, missing header");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid cron snapshot, missing header", e.getMessage());
+		}
+		ByteBuffer buffer = CronSnapshot.encode(EXPRESSIONS);
+		buffer.putShort(4, (short) 3);
+		try {
+			CronSnapshot.wrap(buffer);
+			fail("Unsupported cron snapshot version");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Unsupported cron snapshot version [3], must be [2]", e.getMessage());
+		}
+		buffer = CronSnapshot.encode(EXPRESSIONS);
+		buffer.limit(CronSnapshot.HEADER_SIZE + CronSnapshot.RECORD_SIZE);
+		try {
+			CronSnapshot.wrap(buffer);
+			fail("Invalid cron snapshot, truncated");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid cron snapshot, truncated at 3 records", e.getMessage());
+		}
+	}
+
+	@Test
+	public void command_out_of_bounds() throws Exception {
+		ByteBuffer buffer = CronSnapshot.encode(EXPRESSIONS);
+		int second = CronSnapshot.HEADER_SIZE + CronSnapshot.RECORD_SIZE;
+		// offset of the second command into the records, length of the third past the end
+		buffer.putInt(second + 20, CronSnapshot.HEADER_SIZE);
+		buffer.putInt(second + CronSnapshot.RECORD_SIZE + 24, buffer.limit());
+		CronSnapshot snapshot = CronSnapshot.wrap(buffer);
+		assertEquals("/usr/bin/find", snapshot.getCommand(0));
+		try {
+			snapshot.getCommand(1);
+			fail("Invalid cron snapshot, command out of bounds");
+		} catch (IllegalArgumentException e) {
+			assertEquals("Invalid cron snapshot, command [12+15] of record 1 out of bounds", e.getMessage());
+		}
+		try {
+			snapshot.getCommand(2);
+			fail("Invalid cron snapshot, command out of bounds");
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage().endsWith("of record 2 out of bounds"));
+		}
+	}
+}
@@ -0,0 +1,192 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+public class CronStoreTest {
+
+	private static final ZoneId UTC = ZoneOffset.UTC;
+
+	private static long minute(String dateTime, ZoneId zone) {
+		return LocalDateTime.parse(dateTime).atZone(zone).toEpochSecond() / 60;
+	}
+
+	private static List<Integer> firingAt(CronStore store, long minute) {
+		List<Integer> ids = new ArrayList<>();
+		store.forEachFiringAt(minute, ids::add);
+		return ids;
+	}
+
+	@Test
+	public void add_and_get() throws Exception {
+		CronStore store = new CronStore(UTC);
+		CronExpression exp = new CronExpression("*/15 0 1,15 * 1-5 /usr/bin/find");
+		int id = store.add(exp);
+		assertEquals(1, store.size());
+		assertTrue(store.contains(id));
+		assertEquals(exp.getMinuteField().getBits(), store.getBits(id, FieldType.MINUTE));
+		assertEquals(exp.getDayOfMonthField().getBits(), store.getBits(id, FieldType.DAY_OF_MONTH));
+		assertEquals(exp.getDayOfWeekField().getBits(), store.getBits(id, FieldType.DAY_OF_WEEK));
+		assertEquals("/usr/bin/find", store.getCommand(id));
+		assertEquals("0,15,30,45 0 1,15 * 1-5 /usr/bin/find", store.get(id).toString());
+		assertEquals(exp.describe().toString(), store.get(id).describe().toString());
+	}
+
+	@Test
+	public void firing_at() throws Exception {
+		CronStore store = new CronStore(UTC);
+		int all = store.add(new CronExpression("* * * * * /usr/bin/all"));
+		int quarter = store.add(new CronExpression("*/15 * * * * /usr/bin/quarter"));
+		int weekday = store.add(new CronExpression("0 9 * * MON-FRI /usr/bin/weekday"));
+		int sunday = store.add(new CronExpression("59 23 31 12 SUN /usr/bin/sunday"));
+
+		// 2020-01-06 is a monday, 2023-12-31 a sunday
+		assertEquals(Arrays.asList(all, quarter, weekday), firingAt(store, minute("2020-01-06T09:00", UTC)));
+		assertEquals(Arrays.asList(all), firingAt(store, minute("2020-01-06T09:01", UTC)));
+		assertEquals(Arrays.asList(all, sunday), firingAt(store, minute("2023-12-31T23:59", UTC)));
+
+		ZoneId zone = ZoneId.of("Asia/Kolkata");
+		CronStore zoned = new CronStore(zone);
+		int id = zoned.add(new CronExpression("30 9 * * * /usr/bin/find"));
+		assertEquals(Arrays.asList(id), firingAt(zoned, minute("2020-01-06T09:30", zone)));
+		assertEquals(Arrays.asList(), firingAt(zoned, minute("2020-01-06T09:30", UTC)));
+	}
+
+	@Test
+	public void firing_at_daylight_saving_transitions() throws Exception {
+		String[] expressions = { "* * * * * a", "30 1 * * * b", "*/15 1-2 * * * c", "0 2 * * SUN d", "59 0 * * * e",
+				"0 3 * * * f", "15 1 28 3 * g", "0,30 * * * 1 h", "30 1 * * SAT,SUN i" };
+		String[][] transitions = { { "Europe/London", "2021-03-28T01:00", "2021-10-31T01:00" },
+				{ "America/New_York", "2021-03-14T07:00", "2021-11-07T06:00" } };
+		for (String[] transition : transitions) {
+			ZoneId zone = ZoneId.of(transition[0]);
+			CronStore store = new CronStore(zone);
+			List<ZonedCronExpression> zoned = new ArrayList<>();
+			for (String exp : expressions) {
+				CronExpression cron = new CronExpression(exp);
+				store.add(cron);
+				zoned.add(cron.inZone(zone));
+			}
+			for (int t = 1; t < transition.length; t++) {
+				long at = minute(transition[t], UTC);
+				for (long minute = at - 180; minute < at + 180; minute++) {
+					List<Integer> expected = new ArrayList<>();
+					for (int id = 0; id < zoned.size(); id++) {
+						if (zoned.get(id).firesAt(minute)) {
+							expected.add(id);
+						}
+					}
+					assertEquals(zone + " " + minute, expected, firingAt(store, minute));
+				}
+			}
+		}
+
+		// 01:30 is skipped in London on 2021-03-28 and fires at 02:30 BST, it is repeated on 2021-10-31 and fires in BST
+		CronStore london = new CronStore(ZoneId.of("Europe/London"));
+		int id = london.add(new CronExpression("30 1 * * * /usr/bin/find"));
+		assertEquals(Arrays.asList(id), firingAt(london, minute("2021-03-28T01:30", UTC)));
+		assertEquals(Arrays.asList(id), firingAt(london, minute("2021-10-31T00:30", UTC)));
+		assertEquals(Arrays.asList(), firingAt(london, minute("2021-10-31T01:30", UTC)));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void reject_calendar_dependent_days() throws Exception {
+		new CronStore(UTC).add(new CronExpression("0 0 L * * /usr/bin/last"));
+	}
+
+	@Test
+	public void remove_and_reuse_id() throws Exception {
+		CronStore store = new CronStore(UTC);
+		int first = store.add(new CronExpression("* * * * * /usr/bin/first"));
+		int second = store.add(new CronExpression("* * * * * /usr/bin/second"));
+		assertTrue(store.remove(first));
+		assertFalse(store.remove(first));
+		assertFalse(store.contains(first));
+		assertNull(store.get(first));
+		assertNull(store.getCommand(first));
+		assertEquals(0L, store.getBits(first, FieldType.MINUTE));
+		assertEquals(Arrays.asList(second), firingAt(store, 0));
+
+		assertEquals(first, store.add(new CronExpression("0 0 * * * /usr/bin/third")));
+		assertEquals("/usr/bin/third", store.getCommand(first));
+		assertEquals(2, store.size());
+	}
+
+	@Test
+	public void remove_expression_without_minutes() throws Exception {
+		CronStore store = new CronStore(UTC);
+		int id = store.add(new CronExpression(", * * * * /usr/bin/never"));
+		assertTrue(store.contains(id));
+		assertEquals("/usr/bin/never", store.getCommand(id));
+		assertEquals(", * * * * /usr/bin/never", store.get(id).toString());
+		assertEquals(Arrays.asList(), firingAt(store, 0));
+		assertTrue(store.remove(id));
+		assertFalse(store.contains(id));
+		assertEquals(0, store.size());
+		assertEquals(id, store.add(new CronExpression("* * * * * /usr/bin/always")));
+		assertEquals(Arrays.asList(id), firingAt(store, 0));
+	}
+
+	@Test
+	public void grow_and_compact_commands() throws Exception {
+		CronStore store = new CronStore(UTC);
+		List<Integer> ids = new ArrayList<>();
+		for (int i = 0; i < 1000; i++) {
+			ids.add(store.add(new CronExpression(i % 60 + " * * * * /usr/bin/job" + i)));
+		}
+		// replace every schedule a few times so removed commands are reclaimed
+		for (int round = 1; round <= 3; round++) {
+			for (int i = 0; i < 1000; i++) {
+				store.remove(ids.get(i));
+				ids.set(i, store.add(new CronExpression(i % 60 + " * * * * /usr/bin/job" + i + "-" + round)));
+			}
+		}
+		assertEquals(1000, store.size());
+		for (int i = 0; i < 1000; i++) {
+			assertEquals("/usr/bin/job" + i + "-3", store.getCommand(ids.get(i)));
+		}
+		assertEquals(1000 / 60 + 1, firingAt(store, 0).size());
+	}
+
+	@Test
+	public void replace_in_place() throws Exception {
+		CronStore store = new CronStore(UTC);
+		CronExpression nightly = new CronExpression("0 3 * * * /usr/bin/nightly");
+		int id = store.add(nightly);
+		int other = store.add(new CronExpression("0 4 * * * /usr/bin/other"));
+
+		assertTrue(store.replace(id, nightly.withField(FieldType.HOUR, "4")));
+		assertEquals(Arrays.asList(id, other), firingAt(store, minute("2020-01-06T04:00", UTC)));
+		assertEquals("/usr/bin/nightly", store.getCommand(id));
+		assertEquals(nightly.withField(FieldType.HOUR, "4").describe(), store.get(id).describe());
+
+		assertTrue(store.replace(id, new CronExpression("0 4 1 * MON /usr/bin/renamed")));
+		assertEquals("/usr/bin/renamed", store.getCommand(id));
+		assertEquals("/usr/bin/other", store.getCommand(other));
+		assertEquals(Arrays.asList(id, other), firingAt(store, minute("2020-01-06T04:00", UTC)));
+		assertEquals(Arrays.asList(other), firingAt(store, minute("2020-01-07T04:00", UTC)));
+
+		// commands written again are reclaimed by compacting
+		for (int i = 0; i < 10_000; i++) {
+			store.replace(other, new CronExpression("0 4 * * * /usr/bin/other-" + i));
+		}
+		assertEquals("/usr/bin/other-9999", store.getCommand(other));
+		assertEquals("/usr/bin/renamed", store.getCommand(id));
+
+		assertFalse(store.replace(5, nightly));
+		assertEquals(2, store.size());
+	}
+}
@@ -0,0 +1,97 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CrontabLoaderTest {
+
+	private Path file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = Files.createTempFile("crontab", ".txt");
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		Files.delete(file);
+	}
+
+	private List<CrontabEntry> load(String content) throws Exception {
+		Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+		try (Stream<CrontabEntry> entries = CrontabLoader.load(file)) {
+			return entries.collect(Collectors.toList());
+		}
+	}
+
+	@Test
+	public void load_skips_comments_and_blank_lines() throws Exception {
+		List<CrontabEntry> entries = load(
+				"# backups\n\n*/15 0 1,15 * 1-5 /usr/bin/find\r\n   \n  # indented comment\n0 2 * * * /usr/bin/backup");
+		assertEquals(2, entries.size());
+		assertEquals(3, entries.get(0).getLineNumber());
+		assertEquals("*/15 0 1,15 * 1-5 /usr/bin/find", entries.get(0).getLine());
+		assertEquals("/usr/bin/find", entries.get(0).getExpression().getCommand());
+		assertNull(entries.get(0).getError());
+		assertEquals(6, entries.get(1).getLineNumber());
+		assertTrue(entries.get(1).isValid());
+	}
+
+	@Test
+	public void load_reports_invalid_lines() throws Exception {
+		List<CrontabEntry> entries = load("0 2 * * * /usr/bin/backup\n60 2 * * * /usr/bin/find\n0 2 * * /usr/bin/find\n");
+		assertEquals(3, entries.size());
+		assertTrue(entries.get(0).isValid());
+		assertFalse(entries.get(1).isValid());
+		assertEquals(2, entries.get(1).getLineNumber());
+		assertEquals("Invalid interval [60-60], must be [0-59] for field [MINUTE]", entries.get(1).getError());
+		assertNull(entries.get(1).getExpression());
+		assertEquals(3, entries.get(2).getLineNumber());
+		assertEquals("Invalid cron expression [0 2 * * /usr/bin/find], expected 6 to 8 fields, actual 5",
+				entries.get(2).getError());
+	}
+
+	@Test
+	public void load_numbers_lines_across_chunks() throws Exception {
+		StringBuilder content = new StringBuilder();
+		int lines = 40_000;
+		for (int i = 1; i <= lines; i++) {
+			if (i % 1000 == 0) {
+				content.append("# comment ").append(i).append('\n');
+			} else if (i % 777 == 0) {
+				content.append("invalid ").append(i).append('\n');
+			} else {
+				content.append(i % 60).append(" * * * * /usr/bin/job").append(i).append('\n');
+			}
+		}
+		List<CrontabEntry> entries = load(content.toString());
+		assertEquals(lines - 40, entries.size());
+		for (CrontabEntry entry : entries) {
+			int i = entry.getLineNumber();
+			if (i % 777 == 0) {
+				assertEquals("invalid " + i, entry.getLine());
+				assertFalse(entry.isValid());
+			} else {
+				assertEquals("/usr/bin/job" + i, entry.getExpression().getCommand());
+			}
+		}
+	}
+
+	@Test
+	public void load_empty_file() throws Exception {
+		assertTrue(load("").isEmpty());
+	}
+}
@@ -0,0 +1,128 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.fields.BaseField;
+import com.vjy.deliveroo.cron.fields.DayOfWeekField;
+import com.vjy.deliveroo.cron.fields.FieldType;
+
+public class FieldCacheTest {
+
+	@Test
+	public void expressions_share_fields() throws Exception {
+		CronExpression first = new CronExpression("*/5 9-17 * * MON-FRI /usr/bin/first");
+		CronExpression second = new CronExpression("0 9-17 1 * MON-FRI /usr/bin/second");
+		assertSame(first.getHourField(), second.getHourField());
+		assertSame(first.getMonthField(), second.getMonthField());
+		assertSame(first.getDayOfWeekField(), second.getDayOfWeekField());
+		assertNotSame(first.getMinuteField(), second.getMinuteField());
+		// same text in another field is another field
+		assertNotSame(first.getMonthField(), first.getDayOfMonthField());
+		assertSame(first.getHourField(), first.withField(FieldType.MINUTE, "0").getHourField());
+		assertTrue(CronExpression.fieldCache().size() > 0);
+	}
+
+	@Test
+	public void hits_and_misses() throws Exception {
+		FieldCache cache = new FieldCache(FieldCache.DEFAULT_MAXIMUM_SIZE);
+		String exp = "0 MON-FRI";
+		DayOfWeekField field = cache.get(FieldType.DAY_OF_WEEK, exp, 2, exp.length());
+		assertSame(field, cache.get(FieldType.DAY_OF_WEEK, "MON-FRI", 0, 7));
+		assertEquals(0b111110L, field.getBits());
+		assertEquals(1L, cache.getMissCount());
+		assertEquals(1L, cache.getHitCount());
+		assertEquals(1, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+		assertNotSame(field, cache.get(FieldType.DAY_OF_WEEK, "MON-FRI", 0, 7));
+	}
+
+	@Test
+	public void bounded() throws Exception {
+		FieldCache cache = new FieldCache(2);
+		BaseField star = cache.get(FieldType.MINUTE, "*", 0, 1);
+		BaseField zero = cache.get(FieldType.MINUTE, "0", 0, 1);
+		BaseField hour = cache.get(FieldType.HOUR, "0", 0, 1);
+		// the oldest field is evicted first
+		assertEquals(2, cache.size());
+		assertEquals(1L, cache.getEvictionCount());
+		assertSame(zero, cache.get(FieldType.MINUTE, "0", 0, 1));
+		assertSame(hour, cache.get(FieldType.HOUR, "0", 0, 1));
+		assertNotSame(star, cache.get(FieldType.MINUTE, "*", 0, 1));
+		assertEquals(2L, cache.getEvictionCount());
+		assertEquals(2, cache.size());
+
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void admits_new_fields_when_full() throws Exception {
+		FieldCache cache = new FieldCache(100);
+		for (int i = 0; i < 1000; i++) {
+			String text = Integer.toString(i % 60) + "," + (i / 60);
+			cache.get(FieldType.MINUTE, text, 0, text.length());
+		}
+		assertEquals(100, cache.size());
+		assertEquals(900L, cache.getEvictionCount());
+		// recent fields are cached, the first ones were evicted
+		String recent = 999 % 60 + "," + 999 / 60;
+		long hits = cache.getHitCount();
+		cache.get(FieldType.MINUTE, recent, 0, recent.length());
+		assertEquals(hits + 1, cache.getHitCount());
+		cache.get(FieldType.MINUTE, "0,0", 0, 3);
+		assertEquals(hits + 1, cache.getHitCount());
+	}
+
+	@Test
+	public void concurrent_lookups_keep_the_bound() throws Exception {
+		FieldCache cache = new FieldCache(50);
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			int seed = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 10_000; i++) {
+					String text = i % 60 + "," + (i / 60 + seed) % 60;
+					cache.get(FieldType.SECOND, text, 0, text.length());
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(cache.size() > 0 && cache.size() <= 50);
+		cache.clear();
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void invalid_fields_are_not_cached() throws Exception {
+		FieldCache cache = new FieldCache(FieldCache.DEFAULT_MAXIMUM_SIZE);
+		for (int i = 0; i < 2; i++) {
+			try {
+				cache.get(FieldType.HOUR, "24", 0, 2);
+				fail("Expected invalid hour");
+			} catch (IllegalArgumentException e) {
+				assertEquals(0, cache.size());
+			}
+		}
+	}
+
+	@Test
+	public void describe_prints_fields_of_the_text() throws Exception {
+		// the second 0 of the text is cached, the implicit second of the unix format is not
+		String withSecond = new CronExpression("0 0 3 * * * /usr/bin/find").describe();
+		String withoutSecond = new CronExpression("0 3 * * * /usr/bin/find").describe();
+		assertTrue(withSecond.startsWith("second"));
+		assertTrue(withoutSecond.startsWith("minute"));
+		assertEquals(withoutSecond, withSecond.substring(withSecond.indexOf('\n') + 1));
+	}
+}
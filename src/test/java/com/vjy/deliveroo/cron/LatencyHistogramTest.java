@@ -0,0 +1,84 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+	@Test
+	public void buckets_are_contiguous() throws Exception {
+		assertEquals(0, LatencyHistogram.bucket(0));
+		assertEquals(127, LatencyHistogram.bucket(127));
+		for (int bucket = 1; bucket <= LatencyHistogram.bucket(Long.MAX_VALUE); bucket++) {
+			long lowest = LatencyHistogram.highestValue(bucket - 1) + 1;
+			assertEquals(bucket, LatencyHistogram.bucket(lowest));
+			assertEquals(bucket, LatencyHistogram.bucket(LatencyHistogram.highestValue(bucket)));
+		}
+		assertEquals(Long.MAX_VALUE, LatencyHistogram.highestValue(LatencyHistogram.bucket(Long.MAX_VALUE)));
+	}
+
+	@Test
+	public void percentiles() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0L, histogram.getValueAtPercentile(99));
+		for (long value = 1; value <= 100; value++) {
+			histogram.record(value);
+		}
+		assertEquals(100L, histogram.getCount());
+		assertEquals(5050L, histogram.getTotal());
+		assertEquals(50.5, histogram.getMean(), 0.0);
+		assertEquals(100L, histogram.getMax());
+		assertEquals(1L, histogram.getValueAtPercentile(0));
+		assertEquals(50L, histogram.getValueAtPercentile(50));
+		assertEquals(99L, histogram.getValueAtPercentile(99));
+		assertEquals(100L, histogram.getValueAtPercentile(100));
+
+		histogram.reset();
+		assertEquals(0L, histogram.getCount());
+		assertEquals(0L, histogram.getMax());
+	}
+
+	@Test
+	public void relative_error() throws Exception {
+		Random random = new Random(17);
+		for (int i = 0; i < 10_000; i++) {
+			long value = (random.nextLong() >>> 1) >>> random.nextInt(Long.SIZE - 1);
+			LatencyHistogram histogram = new LatencyHistogram();
+			histogram.record(value);
+			histogram.record(0);
+			long reported = histogram.getValueAtPercentile(100);
+			assertEquals(value, reported);
+			long high = LatencyHistogram.highestValue(LatencyHistogram.bucket(value));
+			assertTrue(value + " in bucket up to " + high, high >= value && high - value <= value / 64);
+		}
+	}
+
+	@Test
+	public void concurrent_recording() throws Exception {
+		LatencyHistogram histogram = new LatencyHistogram();
+		Thread[] threads = new Thread[4];
+		for (int t = 0; t < threads.length; t++) {
+			long base = t;
+			threads[t] = new Thread(() -> {
+				for (int i = 0; i < 100_000; i++) {
+					histogram.record(base * 1000 + i % 1000);
+				}
+			});
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(400_000L, histogram.getCount());
+		assertEquals(3999L, histogram.getMax());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void invalid_percentile() throws Exception {
+		new LatencyHistogram().getValueAtPercentile(101);
+	}
+}
@@ -0,0 +1,104 @@
+package com.vjy.deliveroo.cron;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.vjy.deliveroo.cron.CronMetrics.Operation;
+import com.vjy.deliveroo.cron.RecordingCronMetrics.ExpressionStats;
+
+public class RecordingCronMetricsTest {
+
+	// 2020-01-01T00:00:00Z
+	private static final long FROM = 1577836800000L;
+
+	@After
+	public void uninstall() {
+		CronMetrics.install(CronMetrics.NOOP);
+	}
+
+	private static List<String> expressions(List<ExpressionStats> stats) {
+		return stats.stream().map(ExpressionStats::getExpression).collect(Collectors.toList());
+	}
+
+	@Test
+	public void top_expressions() throws Exception {
+		RecordingCronMetrics metrics = new RecordingCronMetrics();
+		metrics.record(Operation.NEXT_EXECUTION, "a", 10);
+		metrics.record(Operation.NEXT_EXECUTION, "a", 20);
+		metrics.record(Operation.NEXT_EXECUTION, "a", 30);
+		metrics.record(Operation.NEXT_EXECUTION, "b", 500);
+		metrics.record(Operation.NEXT_EXECUTION, "c", 40);
+		metrics.record(Operation.NEXT_EXECUTION, "c", 50);
+		metrics.record(Operation.PARSE, "d", 1000);
+
+		assertEquals(6L, metrics.getCount(Operation.NEXT_EXECUTION));
+		assertEquals(Arrays.asList("b", "c"), expressions(metrics.slowest(Operation.NEXT_EXECUTION, 2)));
+		assertEquals(Arrays.asList("a", "c", "b"), expressions(metrics.mostFrequent(Operation.NEXT_EXECUTION, 5)));
+		ExpressionStats a = metrics.mostFrequent(Operation.NEXT_EXECUTION, 1).get(0);
+		assertEquals(3L, a.getCount());
+		assertEquals(60L, a.getTotalNanos());
+		assertEquals(30L, a.getMaxNanos());
+		assertEquals(Arrays.asList("d"), expressions(metrics.slowest(Operation.PARSE, 2)));
+
+		metrics.reset();
+		assertEquals(0L, metrics.getCount(Operation.NEXT_EXECUTION));
+		assertEquals(0, metrics.slowest(Operation.NEXT_EXECUTION, 2).size());
+	}
+
+	@Test
+	public void tracked_expressions_are_bounded() throws Exception {
+		RecordingCronMetrics metrics = new RecordingCronMetrics(2);
+		metrics.record(Operation.PARSE, "a", 1);
+		metrics.record(Operation.PARSE, "b", 1);
+		metrics.record(Operation.PARSE, "c", 1);
+		metrics.record(Operation.PARSE, "a", 1);
+		metrics.record(Operation.MATCH, null, 1);
+
+		assertEquals(4L, metrics.getCount(Operation.PARSE));
+		assertEquals(1L, metrics.getUntrackedCount(Operation.PARSE));
+		assertEquals(Arrays.asList("a", "b"), expressions(metrics.mostFrequent(Operation.PARSE, 5)));
+		assertEquals(1L, metrics.getCount(Operation.MATCH));
+		assertEquals(0, metrics.mostFrequent(Operation.MATCH, 5).size());
+	}
+
+	@Test
+	public void installed_metrics_time_hot_paths() throws Exception {
+		assertSame(CronMetrics.NOOP, CronMetrics.installed());
+		RecordingCronMetrics metrics = new RecordingCronMetrics();
+		CronMetrics.install(metrics);
+		assertSame(metrics, CronMetrics.installed());
+
+		String text = "*/15 0 1,15 * 1-5 /usr/bin/find";
+		CronExpression exp = new CronExpression(text);
+		exp.nextExecution(FROM, ZoneOffset.UTC);
+		exp.inZone(ZoneOffset.UTC).nextExecution(FROM);
+		new CronMatcher(ZoneOffset.UTC, Arrays.asList(exp)).countMatching(0, 0, 1, 1, 3);
+		new CronIndex(ZoneOffset.UTC).forEachFiringAt(FROM / 60_000L, id -> {
+		});
+
+		assertEquals(1L, metrics.getCount(Operation.PARSE));
+		assertEquals(1L, metrics.getCount(Operation.EXPAND));
+		assertEquals(2L, metrics.getCount(Operation.NEXT_EXECUTION));
+		assertEquals(2L, metrics.getCount(Operation.MATCH));
+		assertEquals(Arrays.asList(text), expressions(metrics.mostFrequent(Operation.NEXT_EXECUTION, 5)));
+		ExpressionStats parse = metrics.slowest(Operation.PARSE, 1).get(0);
+		assertEquals(parse.getMaxNanos(), metrics.getHistogram(Operation.PARSE).getMax());
+
+		CronMetrics.install(CronMetrics.NOOP);
+		exp.nextExecution(FROM, ZoneOffset.UTC);
+		assertEquals(2L, metrics.getCount(Operation.NEXT_EXECUTION));
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void install_null() throws Exception {
+		CronMetrics.install(null);
+	}
+}